@@ -2,14 +2,22 @@ package fathertoast.specialai;
 
 
 import fathertoast.specialai.ai.AIManager;
+import fathertoast.specialai.config.Config;
+import net.minecraft.entity.Entity;
+import net.minecraftforge.event.AttachCapabilitiesEvent;
 import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.EntityAttributeCreationEvent;
+import net.minecraftforge.event.entity.EntityEvent;
 import net.minecraftforge.event.entity.EntityJoinWorldEvent;
+import net.minecraftforge.event.entity.EntityLeaveWorldEvent;
 import net.minecraftforge.event.entity.living.LivingDeathEvent;
 import net.minecraftforge.event.entity.living.LivingHurtEvent;
+import net.minecraftforge.event.entity.living.LivingSetAttackTargetEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.event.server.FMLServerStoppingEvent;
 
 /**
  * Contains and automatically registers all needed forge events.
@@ -30,6 +38,49 @@ public final class GameEventHandler {
         AIManager.onServerTick( event );
     }
     
+    /**
+     * Called when the server is stopping.
+     *
+     * @param event The event data.
+     */
+    @SubscribeEvent( priority = EventPriority.NORMAL )
+    public static void onServerStopping( FMLServerStoppingEvent event ) {
+        Config.saveEntityClassCache();
+        Config.flushWrites();
+    }
+    
+    /**
+     * Called for each world at the start and end of each tick.
+     * <p>
+     * It is usually wise to check the phase (start/end) and side before doing anything.
+     *
+     * @param event The event data.
+     */
+    @SubscribeEvent( priority = EventPriority.NORMAL )
+    public static void onWorldTick( TickEvent.WorldTickEvent event ) {
+        AIManager.onWorldTick( event );
+    }
+    
+    /**
+     * Called when a world is unloaded.
+     *
+     * @param event The event data.
+     */
+    @SubscribeEvent( priority = EventPriority.NORMAL )
+    public static void onWorldUnload( WorldEvent.Unload event ) {
+        AIManager.onWorldUnload( event );
+    }
+    
+    /**
+     * Called when capabilities are being attached to an entity.
+     *
+     * @param event The event data.
+     */
+    @SubscribeEvent( priority = EventPriority.NORMAL )
+    public static void onAttachEntityCapabilities( AttachCapabilitiesEvent<Entity> event ) {
+        AIManager.onAttachCapabilities( event );
+    }
+    
     /**
      * Called when any entity is spawned in the world, including by chunk loading and dimension transition.
      *
@@ -40,13 +91,54 @@ public final class GameEventHandler {
         AIManager.onJoinWorld( event );
     }
     
+    /**
+     * Called when any entity is spawned in the world, after every other listener has had the chance to cancel it.
+     * Canceled events are not received, so only entities that actually join the world get here.
+     *
+     * @param event The event data.
+     */
+    @SubscribeEvent( priority = EventPriority.LOWEST )
+    public static void onJoinedWorld( EntityJoinWorldEvent event ) {
+        AIManager.onJoinedWorld( event );
+    }
+    
+    /**
+     * Called when any entity is removed from the world, including by death, chunk unloading and dimension transition.
+     *
+     * @param event The event data.
+     */
+    @SubscribeEvent( priority = EventPriority.NORMAL )
+    public static void onLeaveWorld( EntityLeaveWorldEvent event ) {
+        AIManager.onLeaveWorld( event );
+    }
+    
+    /**
+     * Called when any entity moves into a different chunk.
+     *
+     * @param event The event data.
+     */
+    @SubscribeEvent( priority = EventPriority.NORMAL )
+    public static void onEnteringChunk( EntityEvent.EnteringChunk event ) {
+        AIManager.onEnteringChunk( event );
+    }
+    
+    /**
+     * Called when a living entity changes its attack target.
+     *
+     * @param event The event data.
+     */
+    @SubscribeEvent( priority = EventPriority.NORMAL )
+    public static void onSetAttackTarget( LivingSetAttackTargetEvent event ) {
+        AIManager.onSetAttackTarget( event );
+    }
+    
     /**
      * Called when a living entity dies for any reason.
      *
      * @param event The event data.
      */
     @SubscribeEvent( priority = EventPriority.NORMAL )
-    public void onLivingDeath( LivingDeathEvent event ) {
+    public static void onLivingDeath( LivingDeathEvent event ) {
         AIManager.onLivingDeath( event );
     }
 }
\ No newline at end of file
@@ -52,6 +52,9 @@ public class ModCore {
      *  - More editing for AI, particularly for editing pre-existing AI
      *  - An extra whitelist for each elite AI to apply it directly
      *  - More effective configs, more per-entity-id options
+     *  - Barrage volley projectile: one entity per barrage holding every arrow's state, with one collision pass
+     *    per tick and compact sync, turning back into real arrows when stuck - needs this mod's first entity
+     *    registration, a client renderer and a spawn packet, so the mod would no longer be server-side only
      */
     
     /** The mod id and namespace used by this mod. */
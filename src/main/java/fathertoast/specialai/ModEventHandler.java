@@ -1,5 +1,6 @@
 package fathertoast.specialai;
 
+import fathertoast.specialai.ai.MobAIData;
 import fathertoast.specialai.config.Config;
 import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
@@ -21,5 +22,6 @@ public final class ModEventHandler {
     @SubscribeEvent( priority = EventPriority.NORMAL )
     public static void setup( final FMLCommonSetupEvent event ) {
         Config.initialize();
+        MobAIData.register();
     }
 }
\ No newline at end of file
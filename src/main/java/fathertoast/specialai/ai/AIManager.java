@@ -8,25 +8,29 @@ import fathertoast.specialai.ai.griefing.IdleActionsGoal;
 import fathertoast.specialai.ai.griefing.SpecialBreakDoorGoal;
 import fathertoast.specialai.config.Config;
 import fathertoast.specialai.config.file.ToastConfigFormat;
-import fathertoast.specialai.util.NBTHelper;
 import net.minecraft.entity.*;
 import net.minecraft.entity.ai.attributes.Attributes;
 import net.minecraft.entity.ai.goal.*;
 import net.minecraft.entity.merchant.villager.VillagerEntity;
 import net.minecraft.entity.passive.*;
 import net.minecraft.entity.player.PlayerEntity;
-import net.minecraft.entity.projectile.ProjectileEntity;
-import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.pathfinding.GroundPathNavigator;
 import net.minecraft.util.GroundPathHelper;
 import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.world.World;
+import net.minecraftforge.event.AttachCapabilitiesEvent;
 import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.EntityEvent;
 import net.minecraftforge.event.entity.EntityJoinWorldEvent;
+import net.minecraftforge.event.entity.EntityLeaveWorldEvent;
 import net.minecraftforge.event.entity.living.LivingDeathEvent;
+import net.minecraftforge.event.entity.living.LivingSetAttackTargetEvent;
+import net.minecraftforge.event.world.WorldEvent;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.function.Supplier;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class handles game events to 'hook in' this mod's AI patterns or to help manage them outside of the AI tick.
@@ -37,30 +41,8 @@ import java.util.function.Supplier;
  * Additionally, it also uses the server tick to run actions that can't be done during the AI tick.
  */
 public final class AIManager {
-    // NBT tags used to store info about this mod's AI.
-    private static final String TAG_DEPACIFY = "depacify";
-    private static final String TAG_AGGRESSIVE = "aggressive";
-    
-    private static final String TAG_AVOID_EXPLOSIONS = "avoid_explosions";
-    private static final String TAG_CALL_FOR_HELP = "call_for_help";
-    private static final String TAG_DODGE_ARROWS = "dodge_arrows";
-    private static final String TAG_ARROW_DODGE_CHECKED = ModCore.MOD_ID + "_dodge_check";
-    
-    private static final String TAG_RIDER = "rider";
-    
-    private static final String TAG_DOOR_BREAK = "door_breaking";
-    
-    private static final String TAG_GRIEF = "griefing";
-    private static final String TAG_FIDDLE = "fiddling";
-    
-    public static final String TAG_ELITE_AI = "elite_ai";
-    private static final String TAG_FORCE_INIT = "force_init";
-    
-    /** All actions currently waiting to be performed at the end of the server tick. */
-    private static final List<Supplier<Boolean>> TICK_END_ACTIONS = new ArrayList<>();
-    
-    /** Queues an action to perform at the end of the server tick. */
-    public static void queue( Supplier<Boolean> action ) { TICK_END_ACTIONS.add( action ); }
+    /** All mobs that have entered the world, but are still waiting for their AI to be initialized. */
+    private static final List<DeferredInit> DEFERRED_INITS = new ArrayList<>();
     
     /** The number of remaining global block scans that can be performed this server tick. */
     private static int scansLeft = Config.IDLE.GENERAL.scanCountGlobal.get();
@@ -83,93 +65,91 @@ public final class AIManager {
     /** @param entity Clears the entity's AI action goals entirely. */
     @SuppressWarnings( "unused" )
     private static void clearActionAI( MobEntity entity ) {
-        for( PrioritizedGoal task : new ArrayList<>( entity.goalSelector.availableGoals ) ) {
-            entity.goalSelector.removeGoal( task.getGoal() );
+        final GoalIndex goals = GoalIndex.goals( entity );
+        for( GoalIndex.Entry task : new ArrayList<>( goals.getAll( Goal.class ) ) ) {
+            goals.remove( task.GOAL );
         }
     }
     
     /** @param entity Clears the entity's AI target goals entirely. */
     @SuppressWarnings( "unused" )
     private static void clearTargetAI( MobEntity entity ) {
-        for( PrioritizedGoal task : new ArrayList<>( entity.targetSelector.availableGoals ) ) {
-            entity.targetSelector.removeGoal( task.getGoal() );
+        final GoalIndex targets = GoalIndex.targets( entity );
+        for( GoalIndex.Entry task : new ArrayList<>( targets.getAll( Goal.class ) ) ) {
+            targets.remove( task.GOAL );
         }
     }
     
     /** @param entity Adds dodge arrows AI to the entity. */
     private static void addDodgeArrowsAI( MobEntity entity, double dodgeChance ) {
-        entity.goalSelector.addGoal( -1, new DodgeArrowsGoal( entity, dodgeChance ) );
+        GoalIndex.goals( entity ).add( -1, new DodgeArrowsGoal( entity, dodgeChance ) );
     }
     
     /** @param entity Adds avoid explosions AI to the entity. */
     private static void addAvoidExplosionsAI( CreatureEntity entity, double speedMulti ) {
-        entity.goalSelector.addGoal( -1, new AvoidExplosionsGoal( entity, speedMulti ) );
+        GoalIndex.goals( entity ).add( -1, new AvoidExplosionsGoal( entity, speedMulti ) );
     }
     
     /** @param entity Adds defend village AI to the entity, as well as attack AI if needed. */
     private static void addDefendVillageTargetAI( VillagerEntity entity ) {
         // TODO
-        //entity.targetSelector.addGoal( 0, new VillagerDefendVillageGoal( entity ) );
+        //GoalIndex.targets( entity ).add( 0, new VillagerDefendVillageGoal( entity ) );
     }
     
     /** @param entity Adds hurt by target AI to the entity, as well as attack AI if needed. */
     private static void addHurtByTargetAI( CreatureEntity entity ) {
-        entity.targetSelector.addGoal( 0, new HurtByTargetGoal( entity ) );
+        GoalIndex.targets( entity ).add( 0, new HurtByTargetGoal( entity ) );
     }
     
     /** @param entity Adds aggressive AI to the entity, as well as attack AI if needed. */
     private static void addAggressiveTargetAI( CreatureEntity entity ) {
-        entity.targetSelector.addGoal( 1, new NearestAttackableTargetGoal<>( entity, PlayerEntity.class, true ) );
+        GoalIndex.targets( entity ).add( 1, new NearestAttackableTargetGoal<>( entity, PlayerEntity.class, true ) );
     }
     
     /** @param entity Adds a melee attack AI to the entity, unless an attack AI is detected. */
     private static void addMeleeAttackAI( CreatureEntity entity ) {
         // Make sure the entity doesn't already have a recognized attack AI
-        for( PrioritizedGoal task : new ArrayList<>( entity.goalSelector.availableGoals ) ) {
-            if( task.getGoal() instanceof MeleeAttackGoal || task.getGoal() instanceof OcelotAttackGoal ||
-                    task.getGoal() instanceof RangedAttackGoal || task.getGoal() instanceof RangedBowAttackGoal || task.getGoal() instanceof RangedCrossbowAttackGoal ) {
-                return;
-            }
+        final GoalIndex goals = GoalIndex.goals( entity );
+        if( goals.contains( MeleeAttackGoal.class ) || goals.contains( OcelotAttackGoal.class ) || goals.contains( RangedAttackGoal.class ) ||
+                goals.contains( RangedBowAttackGoal.class ) || goals.contains( RangedCrossbowAttackGoal.class ) ) {
+            return;
         }
-        entity.goalSelector.addGoal( 0, new AnimalMeleeAttackGoal( entity, false ) );
+        goals.add( 0, new AnimalMeleeAttackGoal( entity, false ) );
     }
     
     /** @param entity Sets the entity's "call for help" flag to true. */
     private static void setHelpAI( MobEntity entity ) {
-        for( PrioritizedGoal task : new ArrayList<>( entity.targetSelector.availableGoals ) ) {
-            if( task.getGoal() instanceof HurtByTargetGoal ) {
-                ((HurtByTargetGoal) task.getGoal()).setAlertOthers();
-                return;
-            }
+        final HurtByTargetGoal hurtByTarget = GoalIndex.targets( entity ).get( HurtByTargetGoal.class );
+        if( hurtByTarget != null ) {
+            hurtByTarget.setAlertOthers();
         }
     }
     
     /** @param entity Adds rider AI to the entity. */
     private static void addRiderAI( MobEntity entity, boolean small ) {
-        entity.goalSelector.addGoal( getPassivePriority( entity ), new RiderGoal( entity, small ) );
+        GoalIndex.goals( entity ).add( getPassivePriority( entity ), new RiderGoal( entity, small ) );
     }
     
     /** @param entity Adds eat breeding items AI to the entity. */
     private static void addEatingAI( AnimalEntity entity ) {
-        entity.goalSelector.addGoal( getPassivePriority( entity ), new EatBreedingItemGoal( entity ) );
+        GoalIndex.goals( entity ).add( getPassivePriority( entity ), new EatBreedingItemGoal( entity ) );
     }
     
-    /** @param entity Adds idle griefing/fiddling AI to the entity, if at least one of the behaviors is enabled. */
+    /** @param entity Adds idle griefing/fiddling AI to the entity. */
     private static void addIdleAI( MobEntity entity, boolean griefing, boolean fiddling ) {
-        if( griefing || fiddling ) {
-            entity.goalSelector.addGoal( getPassivePriority( entity ), new IdleActionsGoal( entity, griefing, fiddling ) );
-        }
+        GoalIndex.goals( entity ).add( getPassivePriority( entity ), new IdleActionsGoal( entity, griefing, fiddling ) );
     }
     
     /** @return Returns the priority that idle AI patterns should be assigned to. */
     private static int getPassivePriority( MobEntity entity ) {
-        if( entity.goalSelector.availableGoals.isEmpty() ) return 6;
+        final List<GoalIndex.Entry> tasks = GoalIndex.goals( entity ).getAll( Goal.class );
+        if( tasks.isEmpty() ) return 6;
         int highest = Integer.MIN_VALUE;
-        for( PrioritizedGoal task : new ArrayList<>( entity.goalSelector.availableGoals ) ) {
-            if( task.getGoal() instanceof RandomWalkingGoal || task.getGoal() instanceof LookAtGoal || task.getGoal() instanceof LookRandomlyGoal )
-                return task.getPriority();
-            if( highest < task.getPriority() ) {
-                highest = task.getPriority();
+        for( GoalIndex.Entry task : tasks ) {
+            if( task.GOAL instanceof RandomWalkingGoal || task.GOAL instanceof LookAtGoal || task.GOAL instanceof LookRandomlyGoal )
+                return task.PRIORITY;
+            if( highest < task.PRIORITY ) {
+                highest = task.PRIORITY;
             }
         }
         return highest + 1;
@@ -178,26 +158,25 @@ public final class AIManager {
     /** @param entity Adds digging AI to the entity. */
     @SuppressWarnings( "unused" )
     private static void addDigAI( MobEntity entity ) {
-        //entity.goalSelector.addGoal( 0, new DigGoal( entity ) );
+        //GoalIndex.goals( entity ).add( 0, new DigGoal( entity ) );
     }
     
     /** @param entity Adds door breaking AI to the entity, replacing any pre-existing door breaking AI. */
     private static void addDoorBreakAI( MobEntity entity ) {
         if( GroundPathHelper.hasGroundPathNavigation( entity ) ) {
+            final GoalIndex goals = GoalIndex.goals( entity );
             int priority = 1;
             // Remove any pre-existing door-breaking ai
-            for( PrioritizedGoal task : new ArrayList<>( entity.goalSelector.availableGoals ) ) {
-                if( task.getGoal() instanceof BreakDoorGoal ) {
-                    if( task.getPriority() < priority ) {
-                        priority = task.getPriority();
-                    }
-                    entity.goalSelector.removeGoal( task.getGoal() );
+            for( GoalIndex.Entry task : new ArrayList<>( goals.getAll( BreakDoorGoal.class ) ) ) {
+                if( task.PRIORITY < priority ) {
+                    priority = task.PRIORITY;
                 }
+                goals.remove( task.GOAL );
             }
             
             // Add the new ai
             ((GroundPathNavigator) entity.getNavigation()).setCanOpenDoors( true );
-            entity.goalSelector.addGoal( priority, new SpecialBreakDoorGoal( entity ) );
+            goals.add( priority, new SpecialBreakDoorGoal( entity ) );
         }
         else {
             ModCore.LOG.warn( "Attempted to add door-breaking ai to entity '{}' with incompatible navigator '{}'",
@@ -217,13 +196,130 @@ public final class AIManager {
             // Reset the global scan limit
             scansLeft = Config.IDLE.GENERAL.scanCountGlobal.get();
             
-            // Run any queued actions
-            if( !TICK_END_ACTIONS.isEmpty() ) {
-                TICK_END_ACTIONS.removeIf( Supplier::get );
+            // Initialize queued mobs
+            if( !DEFERRED_INITS.isEmpty() ) {
+                runDeferredInits();
             }
         }
     }
     
+    /**
+     * Called for each world at the start and end of each tick.
+     * <p>
+     * It is usually wise to check the phase (start/end) and side before doing anything.
+     *
+     * @param event The event data.
+     */
+    public static void onWorldTick( TickEvent.WorldTickEvent event ) {
+        if( event.phase == TickEvent.Phase.END && !event.world.isClientSide() ) {
+            // Run any scheduled actions
+            TickScheduler.tick( event.world );
+            
+            // Alert allies of mobs that died this tick
+            DeathAlerts.run( event.world );
+        }
+    }
+    
+    /**
+     * Called when a living entity changes its attack target.
+     *
+     * @param event The event data.
+     */
+    public static void onSetAttackTarget( LivingSetAttackTargetEvent event ) {
+        // This event also fires when the last mob to hurt an entity changes, so only trust the mob's actual target
+        if( event.getEntityLiving() instanceof MobEntity ) {
+            final MobEntity mob = (MobEntity) event.getEntityLiving();
+            TargetIndex.onSetTarget( mob, mob.getTarget() );
+        }
+    }
+    
+    /**
+     * Called when any entity is removed from the world, including by death, chunk unloading and dimension transition.
+     *
+     * @param event The event data.
+     */
+    public static void onLeaveWorld( EntityLeaveWorldEvent event ) {
+        if( !event.getWorld().isClientSide() ) {
+            TargetIndex.remove( event.getEntity() );
+            PopulationTracker.onLeave( event.getEntity() );
+        }
+    }
+    
+    /**
+     * Called when any entity moves into a different chunk.
+     *
+     * @param event The event data.
+     */
+    public static void onEnteringChunk( EntityEvent.EnteringChunk event ) {
+        if( !event.getEntity().level.isClientSide() ) {
+            PopulationTracker.onEnterChunk( event.getEntity(), event.getNewChunkX(), event.getNewChunkZ() );
+        }
+    }
+    
+    /**
+     * Called when capabilities are being attached to an entity.
+     *
+     * @param event The event data.
+     */
+    public static void onAttachCapabilities( AttachCapabilitiesEvent<Entity> event ) {
+        if( event.getObject() instanceof MobEntity && !event.getObject().level.isClientSide() ) {
+            event.addCapability( MobAIData.KEY, MobAIData.createProvider() );
+        }
+    }
+    
+    /**
+     * Called when a world is unloaded.
+     *
+     * @param event The event data.
+     */
+    public static void onWorldUnload( WorldEvent.Unload event ) {
+        if( event.getWorld() instanceof World ) {
+            TickScheduler.unload( (World) event.getWorld() );
+            DeathAlerts.unload( (World) event.getWorld() );
+            TargetIndex.unload( (World) event.getWorld() );
+            PopulationTracker.unload( (World) event.getWorld() );
+            PathBroker.unload( (World) event.getWorld() );
+            SightCache.unload( (World) event.getWorld() );
+            EliteAIHelper.onWorldUnload( (World) event.getWorld() );
+        }
+    }
+    
+    /**
+     * Initializes queued mobs, nearest to a player first, until this tick's time budget runs out.
+     * Mobs out of range of all players are left in the queue. If deferring has been disabled, the whole queue is initialized.
+     */
+    private static void runDeferredInits() {
+        final boolean limited = Config.GENERAL.PERFORMANCE.deferInitialization.get();
+        final double rangeSqr = Config.GENERAL.PERFORMANCE.deferPlayerRangeSqr.get();
+        
+        if( limited ) {
+            for( DeferredInit deferred : DEFERRED_INITS ) {
+                deferred.updatePlayerDistance();
+            }
+            DEFERRED_INITS.sort( Comparator.comparingDouble( DeferredInit::getPlayerDistanceSqr ) );
+        }
+        final long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos( Config.GENERAL.PERFORMANCE.deferTickBudget.get() );
+        DEFERRED_INITS.removeIf( ( deferred ) -> {
+            // Mobs that left the world will be queued again if they are loaded again
+            if( deferred.ENTITY.removed || !deferred.ENTITY.isAddedToWorld() ) return true;
+            if( limited && (deferred.getPlayerDistanceSqr() > rangeSqr || System.nanoTime() > deadline) ) return false;
+            
+            initializeSpecialAI( deferred.ENTITY );
+            return true;
+        } );
+    }
+    
+    /**
+     * Called when any entity has joined the world and the join can no longer be canceled.
+     *
+     * @param event The event data.
+     */
+    public static void onJoinedWorld( EntityJoinWorldEvent event ) {
+        if( event.getWorld().isClientSide() || event.isCanceled() ) return;
+        
+        PopulationTracker.onJoin( event.getEntity() );
+    }
+    
     /**
      * Called when any entity is spawned in the world, including by chunk loading and dimension transition.
      *
@@ -231,17 +327,26 @@ public final class AIManager {
      */
     public static void onJoinWorld( EntityJoinWorldEvent event ) {
         // None of this should be done on the client side
-        if( event.getWorld().isClientSide() || !event.getEntity().isAlive() ) return;
+        if( event.getWorld().isClientSide() ) return;
+        
+        // Most entities are not handled at all, so find that out before doing anything else
+        final JoinInterest interest = JoinInterest.of( event.getEntity() );
+        if( interest.isNone() || !event.getEntity().isAlive() ) return;
         
         // Check if this is an arrow that can be dodged
-        if( event.getEntity() instanceof ProjectileEntity && !event.getEntity().getPersistentData().getBoolean( TAG_ARROW_DODGE_CHECKED ) ) {
-            event.getEntity().getPersistentData().putBoolean( TAG_ARROW_DODGE_CHECKED, true );
+        if( interest.DODGE_CHECK && !DodgeArrowsGoal.isDodgeChecked( event.getEntity() ) ) {
+            DodgeArrowsGoal.skipDodgeCheck( event.getEntity() );
             DodgeArrowsGoal.doDodgeCheckForArrow( event.getEntity() );
         }
         
         // Only initialize AI on mob entities, where the base AI system is implemented
-        if( event.getEntity() instanceof MobEntity ) {
-            initializeSpecialAI( (MobEntity) event.getEntity() );
+        if( interest.INITIALIZE ) {
+            if( Config.GENERAL.PERFORMANCE.deferInitialization.get() ) {
+                DEFERRED_INITS.add( new DeferredInit( (MobEntity) event.getEntity() ) );
+            }
+            else {
+                initializeSpecialAI( (MobEntity) event.getEntity() );
+            }
         }
     }
     
@@ -251,16 +356,20 @@ public final class AIManager {
      * @param entity The entity to initialize.
      */
     public static void initializeSpecialAI( MobEntity entity ) {
-        // The tag all info for this mod is stored on for the entity
-        final CompoundNBT tag = NBTHelper.getModTag( entity );
+        // The capability all info for this mod is stored on for the entity
+        final MobAIData data = MobAIData.of( entity );
+        if( data == null ) return;
+        data.migrateLegacyData( entity );
+        // Everything about this entity's type that does not need to be recalculated for each entity
+        final InitializationPlan plan = InitializationPlan.of( entity );
         
         // Dodge arrows
-        if( !tag.contains( TAG_DODGE_ARROWS, NBTHelper.ID_NUMERICAL ) ) {
-            final double[] dodgeValues = Config.GENERAL.REACTIONS.dodgeArrowsList.getValues( entity );
-            tag.putDouble( TAG_DODGE_ARROWS, dodgeValues != null && entity.getRandom().nextDouble() < dodgeValues[0] ? dodgeValues[1] : 0.0 );
+        if( !data.isDodgeArrowsDecided() ) {
+            final double[] dodgeValues = plan.DODGE_VALUES;
+            data.setDodgeArrows( dodgeValues != null && roll( entity, dodgeValues[0] ) ? (float) dodgeValues[1] : 0.0F );
         }
-        if( tag.getDouble( TAG_DODGE_ARROWS ) > 0.0F ) {
-            addDodgeArrowsAI( entity, tag.getDouble( TAG_DODGE_ARROWS ) );
+        if( data.getDodgeArrows() > 0.0F ) {
+            addDodgeArrowsAI( entity, data.getDodgeArrows() );
         }
         
         if( entity instanceof CreatureEntity ) {
@@ -268,15 +377,15 @@ public final class AIManager {
             boolean needsAttackAI = false;
             
             // Avoid explosions
-            if( !tag.contains( TAG_AVOID_EXPLOSIONS, NBTHelper.ID_NUMERICAL ) ) {
-                tag.putDouble( TAG_AVOID_EXPLOSIONS, Config.GENERAL.REACTIONS.avoidExplosionsList.getValue( entity ) );
+            if( !data.isAvoidExplosionsDecided() ) {
+                data.setAvoidExplosions( (float) plan.AVOID_EXPLOSIONS );
             }
-            if( tag.getDouble( TAG_AVOID_EXPLOSIONS ) > 0.0 ) {
-                addAvoidExplosionsAI( (CreatureEntity) entity, tag.getDouble( TAG_AVOID_EXPLOSIONS ) );
+            if( data.getAvoidExplosions() > 0.0F ) {
+                addAvoidExplosionsAI( (CreatureEntity) entity, data.getAvoidExplosions() );
             }
             
             // Eat breeding items
-            if( Config.GENERAL.ANIMALS.eatBreedingItems.get() && entity instanceof AnimalEntity ) {
+            if( plan.EAT_BREEDING_ITEMS ) {
                 addEatingAI( (AnimalEntity) entity );
             }
             
@@ -287,19 +396,19 @@ public final class AIManager {
             }
             
             // Depacify
-            if( !tag.contains( TAG_DEPACIFY, NBTHelper.ID_NUMERICAL ) ) {
-                tag.putBoolean( TAG_DEPACIFY, Config.GENERAL.ANIMALS.depacifyList.rollChance( entity ) );
+            if( !data.isDecided( MobAIData.Choice.DEPACIFY ) ) {
+                data.set( MobAIData.Choice.DEPACIFY, roll( entity, plan.DEPACIFY_CHANCE ) );
             }
-            if( tag.getBoolean( TAG_DEPACIFY ) ) {
+            if( data.get( MobAIData.Choice.DEPACIFY ) ) {
                 addHurtByTargetAI( (CreatureEntity) entity );
                 needsAttackAI = true;
             }
             
             // Aggressive
-            if( !tag.contains( TAG_AGGRESSIVE, NBTHelper.ID_NUMERICAL ) ) {
-                tag.putBoolean( TAG_AGGRESSIVE, Config.GENERAL.ANIMALS.aggressiveList.rollChance( entity ) );
+            if( !data.isDecided( MobAIData.Choice.AGGRESSIVE ) ) {
+                data.set( MobAIData.Choice.AGGRESSIVE, roll( entity, plan.AGGRESSIVE_CHANCE ) );
             }
-            if( tag.getBoolean( TAG_AGGRESSIVE ) ) {
+            if( data.get( MobAIData.Choice.AGGRESSIVE ) ) {
                 addAggressiveTargetAI( (CreatureEntity) entity );
                 needsAttackAI = true;
             }
@@ -310,41 +419,31 @@ public final class AIManager {
         }
         
         // Call for help
-        if( !tag.contains( TAG_CALL_FOR_HELP, NBTHelper.ID_NUMERICAL ) ) {
-            tag.putBoolean( TAG_CALL_FOR_HELP, Config.GENERAL.REACTIONS.callForHelpList.rollChance( entity ) );
+        if( !data.isDecided( MobAIData.Choice.CALL_FOR_HELP ) ) {
+            data.set( MobAIData.Choice.CALL_FOR_HELP, roll( entity, plan.CALL_FOR_HELP_CHANCE ) );
         }
-        if( tag.getBoolean( TAG_CALL_FOR_HELP ) ) {
+        if( data.get( MobAIData.Choice.CALL_FOR_HELP ) ) {
             setHelpAI( entity );
         }
         
         // Rider
-        final boolean small = Config.GENERAL.JOCKEYS.riderWhitelistSmall.get().contains( entity );
-        if( !tag.contains( TAG_RIDER, NBTHelper.ID_NUMERICAL ) ) {
-            final boolean makeRider;
-            if( Config.GENERAL.JOCKEYS.riderBlacklist.get().contains( entity ) ) {
-                makeRider = false;
-            }
-            // Small rider whitelist is a special case, so it gets priority over the normal whitelist
-            else if( small ) {
-                makeRider = Config.GENERAL.JOCKEYS.riderWhitelistSmall.get().rollChance( entity );
-            }
-            else {
-                makeRider = Config.GENERAL.JOCKEYS.riderWhitelist.get().rollChance( entity );
-            }
-            tag.putBoolean( TAG_RIDER, makeRider );
+        if( !data.isDecided( MobAIData.Choice.RIDER ) ) {
+            data.set( MobAIData.Choice.RIDER, roll( entity, plan.RIDER_CHANCE ) );
         }
-        if( tag.getBoolean( TAG_RIDER ) ) {
-            addRiderAI( entity, small );
+        if( data.get( MobAIData.Choice.RIDER ) ) {
+            addRiderAI( entity, plan.RIDER_SMALL );
         }
         
         // Passive griefing
-        if( !tag.contains( TAG_GRIEF, NBTHelper.ID_NUMERICAL ) ) {
-            tag.putBoolean( TAG_GRIEF, Config.IDLE.GRIEFING.entityList.rollChance( entity ) );
+        if( !data.isDecided( MobAIData.Choice.GRIEF ) ) {
+            data.set( MobAIData.Choice.GRIEF, roll( entity, plan.GRIEF_CHANCE * Config.IDLE.GRIEFING.dimensionMultipliers.get().getValue( entity.level ) ) );
         }
-        if( !tag.contains( TAG_FIDDLE, NBTHelper.ID_NUMERICAL ) ) {
-            tag.putBoolean( TAG_FIDDLE, Config.IDLE.FIDDLING.entityList.rollChance( entity ) );
+        if( !data.isDecided( MobAIData.Choice.FIDDLE ) ) {
+            data.set( MobAIData.Choice.FIDDLE, roll( entity, plan.FIDDLE_CHANCE * Config.IDLE.FIDDLING.dimensionMultipliers.get().getValue( entity.level ) ) );
+        }
+        if( data.get( MobAIData.Choice.GRIEF ) || data.get( MobAIData.Choice.FIDDLE ) ) {
+            addIdleAI( entity, data.get( MobAIData.Choice.GRIEF ), data.get( MobAIData.Choice.FIDDLE ) );
         }
-        addIdleAI( entity, tag.getBoolean( TAG_GRIEF ), tag.getBoolean( TAG_FIDDLE ) );
 
         /* WIP
         // Digging
@@ -354,38 +453,37 @@ public final class AIManager {
          */
         
         // Door-breaking AI
-        if( !tag.contains( TAG_DOOR_BREAK, NBTHelper.ID_NUMERICAL ) ) {
-            tag.putBoolean( TAG_DOOR_BREAK, Config.GENERAL.DOOR_BREAKING.entityList.rollChance( entity ) );
+        if( !data.isDecided( MobAIData.Choice.DOOR_BREAK ) ) {
+            data.set( MobAIData.Choice.DOOR_BREAK, roll( entity, plan.DOOR_BREAK_CHANCE ) );
         }
-        if( tag.getBoolean( TAG_DOOR_BREAK ) ) {
+        if( data.get( MobAIData.Choice.DOOR_BREAK ) ) {
             addDoorBreakAI( entity );
         }
         
         // Elite AI
-        final CompoundNBT eliteTag;
-        if( !tag.contains( TAG_ELITE_AI, NBTHelper.ID_COMPOUND ) ) {
-            eliteTag = NBTHelper.getOrCreateTag( tag, TAG_ELITE_AI );
-            
+        if( !data.isEliteAIDecided() ) {
             // Apply new AI(s), if needed
-            final double[] chances = Config.ELITE_AI.GENERAL.entityList.getValues( entity );
+            final double[] chances = plan.ELITE_CHANCES;
             if( chances != null ) {
+                final double multiplier = Config.ELITE_AI.GENERAL.dimensionMultipliers.get().getValue( entity.level );
                 for( double chance : chances ) {
-                    if( chance > 0.0 && entity.getRandom().nextDouble() < chance ) {
-                        EliteAIHelper.saveEliteAI( entity, eliteTag );
+                    if( roll( entity, chance * multiplier ) ) {
+                        EliteAIHelper.saveEliteAI( entity, data );
                     }
                 }
             }
+            data.setEliteAIDecided();
             
-            // Mark this entity to init, if not already forced
-            if( !tag.contains( TAG_FORCE_INIT, NBTHelper.ID_NUMERICAL ) ) {
-                tag.putBoolean( TAG_FORCE_INIT, true );
-            }
+            // Mark this entity to init
+            data.setForceInit( true );
         }
-        else {
-            eliteTag = tag.getCompound( TAG_ELITE_AI );
-        }
-        EliteAIHelper.loadEliteAI( entity, eliteTag, tag.getBoolean( TAG_FORCE_INIT ) );
-        tag.remove( TAG_FORCE_INIT );
+        EliteAIHelper.loadEliteAI( entity, data.getEliteAI(), data.isForceInit() );
+        data.setForceInit( false );
+    }
+    
+    /** @return Randomly rolls a chance for the entity. Does not use the entity's RNG if the chance is not positive. */
+    private static boolean roll( MobEntity entity, double chance ) {
+        return chance > 0.0 && entity.getRandom().nextDouble() < chance;
     }
     
     /**
@@ -396,27 +494,46 @@ public final class AIManager {
      * @param event The event being triggered.
      */
     public static void onLivingDeath( LivingDeathEvent event ) {
+        if( !event.getEntityLiving().level.isClientSide() ) {
+            TargetIndex.remove( event.getEntityLiving() );
+        }
+        
         // Call for help on death
         final double chance = Config.GENERAL.REACTIONS.callForHelpOnDeathList.getValue( event.getEntityLiving() );
         if( chance > 0.0 && event.getEntityLiving() instanceof MobEntity && event.getEntityLiving().getRandom().nextDouble() < chance ) {
             MobEntity entity = (MobEntity) event.getEntityLiving();
             Entity target = event.getSource().getEntity();
             if( target instanceof LivingEntity ) {
-                
-                // Alert all similar entities around the killed entity to the killer
                 final double range = entity.getAttributeValue( Attributes.FOLLOW_RANGE );
-                AxisAlignedBB boundingBox = AxisAlignedBB.unitCubeFromLowerCorner( entity.position() ).inflate( range, 10.0, range );
                 
-                // Note this logic is duplicated from the "hurt by target" goal, it is just massively simplified
-                for( MobEntity other : entity.level.getLoadedEntitiesOfClass( entity.getClass(), boundingBox ) ) {
-                    if( entity != other && other.getTarget() == null &&
-                            (!(entity instanceof TameableEntity) || ((TameableEntity) entity).getOwner() == ((TameableEntity) other).getOwner()) &&
-                            !other.isAlliedTo( target ) ) {
-                        other.setTarget( (LivingEntity) target );
-                    }
+                // Alert all similar entities around the killed entity to the killer at the end of the tick
+                DeathAlerts.queue( entity, (LivingEntity) target,
+                        AxisAlignedBB.unitCubeFromLowerCorner( entity.position() ).inflate( range, 10.0, range ) );
+            }
+        }
+    }
+    
+    /** A mob waiting to have its AI initialized. */
+    private static final class DeferredInit {
+        /** The mob to initialize. */
+        final MobEntity ENTITY;
+        /** The squared distance to the nearest player, as of the last update. */
+        private double playerDistanceSqr = Double.POSITIVE_INFINITY;
+        
+        DeferredInit( MobEntity entity ) { ENTITY = entity; }
+        
+        /** Updates the distance to the nearest non-spectator player in the mob's world. */
+        void updatePlayerDistance() {
+            playerDistanceSqr = Double.POSITIVE_INFINITY;
+            for( PlayerEntity player : ENTITY.level.players() ) {
+                if( !player.isSpectator() ) {
+                    playerDistanceSqr = Math.min( playerDistanceSqr, player.distanceToSqr( ENTITY ) );
                 }
             }
         }
+        
+        /** @return The squared distance to the nearest player, as of the last update. */
+        double getPlayerDistanceSqr() { return playerDistanceSqr; }
     }
     
     // This is a static-only helper class.
@@ -25,8 +25,15 @@ import javax.annotation.Nullable;
  * <p>
  * In addition, it will attempt to substitute path navigators in an attempt to get the pathfinding working on entities
  * that are not set up to use normal pathfinding. (This is a work in progress.)
+ * <p>
+ * Its pathfinding goes through the path broker, so many mobs chasing the same target share paths and stay within the
+ * world's pathfinding budget.
  */
 public class AnimalMeleeAttackGoal extends MeleeAttackGoal {
+    /** The pathfinding speed multiplier for the owner while attacking. */
+    private final double speed;
+    /** True if the owner keeps following its target without line of sight. */
+    private final boolean followWithoutSight;
     
     /** @return Returns the pathfinding speed multiplier for the entity while attacking. This is not used for swimming entities. */
     public static double attackingMoveSpeed( MobEntity entity ) {
@@ -77,6 +84,60 @@ public class AnimalMeleeAttackGoal extends MeleeAttackGoal {
      */
     public AnimalMeleeAttackGoal( CreatureEntity entity, boolean memory ) {
         super( entity, attackingMoveSpeed( entity ), memory );
+        speed = attackingMoveSpeed( entity );
+        followWithoutSight = memory;
+    }
+    
+    /** @return Returns true if this AI can be activated. */
+    @Override
+    public boolean canUse() {
+        // Only check once per second, like the base goal
+        final long time = mob.level.getGameTime();
+        if( time - lastCanUseCheck < 20L ) return false;
+        lastCanUseCheck = time;
+        
+        final LivingEntity target = mob.getTarget();
+        if( target == null || !target.isAlive() ) return false;
+        path = PathBroker.createPath( mob, target, 0 );
+        return path != null || getAttackReachSqr( target ) >= mob.distanceToSqr( target.getX(), target.getY(), target.getZ() );
+    }
+    
+    /**
+     * Called each tick while this AI is active. This is the base goal's logic with repathing done through the path broker.
+     * Forge's failed path penalty is left out, since it is never enabled for this goal.
+     */
+    @Override
+    public void tick() {
+        final LivingEntity target = mob.getTarget();
+        if( target == null ) return;
+        
+        mob.getLookControl().setLookAt( target, 30.0F, 30.0F );
+        final double distanceSqr = mob.distanceToSqr( target.getX(), target.getY(), target.getZ() );
+        ticksUntilNextPathRecalculation = Math.max( ticksUntilNextPathRecalculation - 1, 0 );
+        if( (followWithoutSight || mob.getSensing().canSee( target )) && ticksUntilNextPathRecalculation <= 0 &&
+                (pathedTargetX == 0.0 && pathedTargetY == 0.0 && pathedTargetZ == 0.0 ||
+                        target.distanceToSqr( pathedTargetX, pathedTargetY, pathedTargetZ ) >= 1.0 || mob.getRandom().nextFloat() < 0.05F) ) {
+            pathedTargetX = target.getX();
+            pathedTargetY = target.getY();
+            pathedTargetZ = target.getZ();
+            ticksUntilNextPathRecalculation = 4 + mob.getRandom().nextInt( 7 );
+            
+            // Repath less often when far away
+            if( distanceSqr > 1024.0 ) {
+                ticksUntilNextPathRecalculation += 10;
+            }
+            else if( distanceSqr > 256.0 ) {
+                ticksUntilNextPathRecalculation += 5;
+            }
+            
+            if( !PathBroker.moveTo( mob, target, speed ) ) {
+                // Apply larger penalty on failure
+                ticksUntilNextPathRecalculation += 15;
+            }
+        }
+        
+        ticksUntilNextAttack = Math.max( ticksUntilNextAttack - 1, 0 );
+        checkAndPerformAttack( target, distanceSqr );
     }
     
     /**
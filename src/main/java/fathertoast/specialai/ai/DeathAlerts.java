@@ -0,0 +1,146 @@
+package fathertoast.specialai.ai;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.MobEntity;
+import net.minecraft.entity.passive.TameableEntity;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the area searches for allies made by mobs that call for help on death, and runs them at the end of the tick.
+ * <p>
+ * Alerts with the same killer, mob class and owner are grouped, and overlapping search areas within a group are merged, so
+ * each group searches each area once and considers each nearby ally once, however many of its allies died that tick.
+ */
+final class DeathAlerts {
+    /** The alerts waiting to be run in each world. Only used on the server thread. */
+    private static final Map<World, List<Group>> PENDING = new HashMap<>();
+    
+    /**
+     * Queues an alert to be run at the end of the world's tick.
+     *
+     * @param entity The mob that died.
+     * @param target The killer to alert allies to.
+     * @param area   The area to search for allies in.
+     */
+    static void queue( MobEntity entity, LivingEntity target, AxisAlignedBB area ) {
+        final Entity owner = entity instanceof TameableEntity ? ((TameableEntity) entity).getOwner() : null;
+        final List<Group> groups = PENDING.computeIfAbsent( entity.level, ( key ) -> new ArrayList<>() );
+        for( Group group : groups ) {
+            if( group.matches( entity, target, owner ) ) {
+                group.add( area );
+                return;
+            }
+        }
+        final Group group = new Group( entity, target, owner );
+        group.add( area );
+        groups.add( group );
+    }
+    
+    /** Called at the end of each server world tick to run that world's alerts. */
+    static void run( World world ) {
+        final List<Group> groups = PENDING.remove( world );
+        if( groups != null ) {
+            for( Group group : groups ) {
+                group.run( world );
+            }
+        }
+    }
+    
+    /** Called when a world unloads to discard any alerts still waiting. */
+    static void unload( World world ) { PENDING.remove( world ); }
+    
+    /** A set of alerts that all alert the same kind of mob to the same killer. */
+    private static final class Group {
+        /** The class of the mobs that died. Only mobs of this class are alerted. */
+        private final Class<? extends MobEntity> TYPE;
+        /** The killer to alert allies to. */
+        private final LivingEntity TARGET;
+        /** The owner of the mobs that died, if they are tameable. Only mobs with the same owner are alerted. */
+        private final Entity OWNER;
+        /** True if the mobs that died are tameable, so the owner must be checked. */
+        private final boolean TAMEABLE;
+        /** The merged search areas. No two of these overlap. */
+        private final List<Cluster> CLUSTERS = new ArrayList<>();
+        
+        Group( MobEntity entity, LivingEntity target, Entity owner ) {
+            TYPE = entity.getClass();
+            TARGET = target;
+            OWNER = owner;
+            TAMEABLE = entity instanceof TameableEntity;
+        }
+        
+        /** @return True if an alert from the mob belongs in this group. */
+        boolean matches( MobEntity entity, LivingEntity target, Entity owner ) {
+            return TYPE == entity.getClass() && TARGET == target && OWNER == owner;
+        }
+        
+        /** Adds a search area to this group, merging it with any areas it overlaps. */
+        void add( AxisAlignedBB area ) {
+            Cluster merged = new Cluster( area );
+            // Merging can make a cluster overlap others it did not before, so keep going until nothing changes
+            boolean changed = true;
+            while( changed ) {
+                changed = false;
+                for( int i = 0; i < CLUSTERS.size(); i++ ) {
+                    if( CLUSTERS.get( i ).bounds.intersects( merged.bounds ) ) {
+                        merged.merge( CLUSTERS.remove( i ) );
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+            CLUSTERS.add( merged );
+        }
+        
+        /** Searches each merged area once and alerts each eligible ally found. */
+        void run( World world ) {
+            if( !TARGET.isAlive() ) return;
+            
+            // Note this logic is duplicated from the "hurt by target" goal, it is just massively simplified
+            for( Cluster cluster : CLUSTERS ) {
+                for( MobEntity other : world.getLoadedEntitiesOfClass( TYPE, cluster.bounds ) ) {
+                    if( other.isAlive() && other.getTarget() == null && cluster.contains( other ) &&
+                            (!TAMEABLE || OWNER == ((TameableEntity) other).getOwner()) &&
+                            !other.isAlliedTo( TARGET ) ) {
+                        other.setTarget( TARGET );
+                    }
+                }
+            }
+        }
+    }
+    
+    /** A set of overlapping search areas. */
+    private static final class Cluster {
+        /** The search areas. */
+        private final List<AxisAlignedBB> AREAS = new ArrayList<>( 1 );
+        /** The smallest box containing all the search areas. */
+        private AxisAlignedBB bounds;
+        
+        Cluster( AxisAlignedBB area ) {
+            AREAS.add( area );
+            bounds = area;
+        }
+        
+        /** Adds all search areas from another cluster to this one. */
+        void merge( Cluster other ) {
+            AREAS.addAll( other.AREAS );
+            bounds = bounds.minmax( other.bounds );
+        }
+        
+        /** @return True if the entity is in any of the search areas. The bounds may cover space outside all of them. */
+        boolean contains( Entity entity ) {
+            if( AREAS.size() == 1 ) return true;
+            for( AxisAlignedBB area : AREAS ) {
+                if( area.intersects( entity.getBoundingBox() ) ) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -1,20 +1,27 @@
 package fathertoast.specialai.ai;
 
+import fathertoast.specialai.ModCore;
 import net.minecraft.entity.CreatureEntity;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.MobEntity;
 import net.minecraft.entity.ai.goal.Goal;
-import net.minecraft.entity.ai.goal.PrioritizedGoal;
 import net.minecraft.util.math.vector.Vector3d;
 import net.minecraft.world.server.ServerWorld;
 
-import java.util.ArrayList;
 import java.util.EnumSet;
 
 /**
  * This AI causes the entity to make a short sidestep 'hop' when an arrow is fired in its direction.
  */
 public class DodgeArrowsGoal extends Goal {
+    /** The persistent data key used to mark projectiles that have already had their arrow dodge check. */
+    private static final String TAG_DODGE_CHECKED = ModCore.MOD_ID + "_dodge_check";
+    
+    /** @return True if the projectile has already had its arrow dodge check, or should not have one. */
+    static boolean isDodgeChecked( Entity arrow ) { return arrow.getPersistentData().getBoolean( TAG_DODGE_CHECKED ); }
+    
+    /** Marks the projectile so that it will not have another arrow dodge check when it enters the world. */
+    static void skipDodgeCheck( Entity arrow ) { arrow.getPersistentData().putBoolean( TAG_DODGE_CHECKED, true ); }
     
     /** Called for each arrow the first time it is spawned in the world to check if any entities should try to dodge it. */
     public static void doDodgeCheckForArrow( Entity arrow ) {
@@ -28,25 +35,24 @@ public class DodgeArrowsGoal extends Goal {
         final double vH = Math.sqrt( arrowMotion.x * arrowMotion.x + arrowMotion.z * arrowMotion.z );
         final Vector3d arrowDirection = new Vector3d( arrowMotion.x / vH, 0.0, arrowMotion.z / vH );
         
-        // Check all entities in the world that may be in the arrow's line of fire
+        // Check all entities near the arrow that may be in its line of fire
         final int rangeVertical = 16;
         final int rangeHorizontal = 24;
-        for( Entity entity : world.getAllEntities() ) {
-            if( entity instanceof CreatureEntity ) {
-                // Check vertical range
-                final int distanceY = Math.abs( (int) entity.position().y - (int) arrow.position().y );
-                if( distanceY <= rangeVertical ) {
-                    // Check horizontal range
-                    final double distanceX = entity.position().x - arrow.position().x;
-                    final double distanceZ = entity.position().z - arrow.position().z;
-                    final double distanceH = Math.sqrt( distanceX * distanceX + distanceZ * distanceZ );
-                    if( distanceH <= rangeHorizontal ) {
-                        // Check ray width
-                        final double cos = (arrowDirection.x * distanceX + arrowDirection.z * distanceZ) / distanceH;
-                        final double sin = Math.sqrt( 1 - cos * cos );
-                        if( width > distanceH * sin ) {
-                            tryDodgeArrow( (CreatureEntity) entity, arrowDirection );
-                        }
+        for( CreatureEntity entity : world.getEntitiesOfClass( CreatureEntity.class,
+                arrow.getBoundingBox().inflate( rangeHorizontal, rangeVertical + 1, rangeHorizontal ) ) ) {
+            // Check vertical range
+            final int distanceY = Math.abs( (int) entity.position().y - (int) arrow.position().y );
+            if( distanceY <= rangeVertical ) {
+                // Check horizontal range
+                final double distanceX = entity.position().x - arrow.position().x;
+                final double distanceZ = entity.position().z - arrow.position().z;
+                final double distanceH = Math.sqrt( distanceX * distanceX + distanceZ * distanceZ );
+                if( distanceH <= rangeHorizontal ) {
+                    // Check ray width
+                    final double cos = (arrowDirection.x * distanceX + arrowDirection.z * distanceZ) / distanceH;
+                    final double sin = Math.sqrt( 1 - cos * cos );
+                    if( width > distanceH * sin ) {
+                        tryDodgeArrow( entity, arrowDirection );
                     }
                 }
             }
@@ -55,10 +61,12 @@ public class DodgeArrowsGoal extends Goal {
     
     /** Alerts the entity's arrow dodge AI, if it has one, that an arrow has been fired at the entity. */
     private static void tryDodgeArrow( CreatureEntity entity, Vector3d arrowDirection ) {
-        for( PrioritizedGoal task : new ArrayList<>( entity.goalSelector.availableGoals ) ) {
-            if( task.getGoal() instanceof DodgeArrowsGoal ) {
-                ((DodgeArrowsGoal) task.getGoal()).setDodgeTarget( arrowDirection );
-            }
+        // Only look through the goals of mobs that were given the dodge AI
+        final MobAIData data = MobAIData.of( entity );
+        if( data == null || data.getDodgeArrows() <= 0.0F ) return;
+        
+        for( GoalIndex.Entry task : GoalIndex.goals( entity ).getAll( DodgeArrowsGoal.class ) ) {
+            ((DodgeArrowsGoal) task.GOAL).setDodgeTarget( arrowDirection );
         }
     }
     
@@ -0,0 +1,195 @@
+package fathertoast.specialai.ai;
+
+import net.minecraft.entity.MobEntity;
+import net.minecraft.entity.ai.goal.Goal;
+import net.minecraft.entity.ai.goal.GoalSelector;
+import net.minecraft.entity.ai.goal.PrioritizedGoal;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * An index of the goals in one of a mob's goal selectors, by goal class and every superclass of it.
+ * <p>
+ * Each index is built from its selector the first time it is used. Goals added or removed through the index update it
+ * directly. Vanilla code and other mods also change selectors directly (skeletons swapping their attack goal when they
+ * change weapons, for example), so the selector's goal set is replaced with one that counts its changes. The index is
+ * rebuilt only when that count has moved since the index last matched the selector, which costs one comparison per use.
+ */
+public final class GoalIndex {
+    /** @return The index for the mob's action goals. */
+    public static GoalIndex goals( MobEntity entity ) {
+        final MobAIData data = MobAIData.of( entity );
+        return data == null ? new GoalIndex( entity.goalSelector ) : data.getGoals( entity );
+    }
+    
+    /** @return The index for the mob's target goals. */
+    public static GoalIndex targets( MobEntity entity ) {
+        final MobAIData data = MobAIData.of( entity );
+        return data == null ? new GoalIndex( entity.targetSelector ) : data.getTargets( entity );
+    }
+    
+    /** The goal selector this indexes. */
+    private final GoalSelector SELECTOR;
+    /** The goals in the selector, by each class they are an instance of. */
+    private final Map<Class<?>, List<Entry>> BY_CLASS = new HashMap<>();
+    /** The selector's goal set, which counts every change made to it. */
+    private final CountedGoalSet GOAL_SET;
+    /** The goal set's change count when this index last matched it. */
+    private int indexedChanges;
+    
+    /** Creates an index of all goals currently in the selector. */
+    GoalIndex( GoalSelector selector ) {
+        SELECTOR = selector;
+        GOAL_SET = CountedGoalSet.of( selector );
+        rebuild();
+    }
+    
+    /** Adds a goal to the selector. */
+    public void add( int priority, Goal goal ) {
+        validate();
+        final int changes = GOAL_SET.changes;
+        SELECTOR.addGoal( priority, goal );
+        // The selector ignores goals it already has
+        if( GOAL_SET.changes != changes ) index( new Entry( goal, priority ) );
+        indexedChanges = GOAL_SET.changes;
+    }
+    
+    /** Removes a goal from the selector. */
+    public void remove( Goal goal ) {
+        validate();
+        final int changes = GOAL_SET.changes;
+        SELECTOR.removeGoal( goal );
+        if( GOAL_SET.changes == changes ) return;
+        indexedChanges = GOAL_SET.changes;
+        for( Class<?> type = goal.getClass(); type != Object.class; type = type.getSuperclass() ) {
+            final List<Entry> entries = BY_CLASS.get( type );
+            if( entries != null ) {
+                entries.removeIf( ( entry ) -> entry.GOAL == goal );
+                if( entries.isEmpty() ) BY_CLASS.remove( type );
+            }
+        }
+    }
+    
+    /** @return True if the selector has a goal of the given class. */
+    public boolean contains( Class<? extends Goal> type ) {
+        validate();
+        return BY_CLASS.containsKey( type );
+    }
+    
+    /** @return The first goal of the given class added to the selector, or null if it has none. */
+    @Nullable
+    public <T extends Goal> T get( Class<T> type ) {
+        validate();
+        final List<Entry> entries = BY_CLASS.get( type );
+        return entries == null ? null : type.cast( entries.get( 0 ).GOAL );
+    }
+    
+    /** @return All goals of the given class in the selector. The returned list must be copied before changing the selector. */
+    public List<Entry> getAll( Class<? extends Goal> type ) {
+        validate();
+        final List<Entry> entries = BY_CLASS.get( type );
+        return entries == null ? Collections.emptyList() : Collections.unmodifiableList( entries );
+    }
+    
+    /** Rebuilds the index if the selector has been changed without going through it. */
+    private void validate() {
+        if( indexedChanges != GOAL_SET.changes ) rebuild();
+    }
+    
+    /** Clears the index and indexes all goals currently in the selector. */
+    private void rebuild() {
+        BY_CLASS.clear();
+        for( PrioritizedGoal task : GOAL_SET ) {
+            index( new Entry( task.getGoal(), task.getPriority() ) );
+        }
+        indexedChanges = GOAL_SET.changes;
+    }
+    
+    /** Adds an entry under the goal's class and each of its superclasses. */
+    private void index( Entry entry ) {
+        for( Class<?> type = entry.GOAL.getClass(); type != Object.class; type = type.getSuperclass() ) {
+            BY_CLASS.computeIfAbsent( type, ( key ) -> new ArrayList<>( 2 ) ).add( entry );
+        }
+    }
+    
+    /** A goal in the selector and its priority. */
+    public static final class Entry {
+        /** The goal. */
+        public final Goal GOAL;
+        /** The goal's priority in the selector. Lower numbers run first. */
+        public final int PRIORITY;
+        
+        private Entry( Goal goal, int priority ) {
+            GOAL = goal;
+            PRIORITY = priority;
+        }
+    }
+    
+    /** A goal selector's set of goals that counts every change made to it, so indexes can tell when they are out of date. */
+    private static final class CountedGoalSet extends LinkedHashSet<PrioritizedGoal> {
+        /** @return The selector's counted goal set, replacing its goal set with one if needed. */
+        static CountedGoalSet of( GoalSelector selector ) {
+            if( !(selector.availableGoals instanceof CountedGoalSet) ) {
+                selector.availableGoals = new CountedGoalSet( selector.availableGoals );
+            }
+            return (CountedGoalSet) selector.availableGoals;
+        }
+        
+        /** The number of changes made to this set. Only ever compared for equality, so overflow does not matter. */
+        int changes;
+        
+        private CountedGoalSet( Collection<PrioritizedGoal> goals ) { super( goals ); }
+        
+        /** Adds the goal, counting the change if the set did not already have it. */
+        @Override
+        public boolean add( PrioritizedGoal goal ) {
+            if( !super.add( goal ) ) return false;
+            changes++;
+            return true;
+        }
+        
+        /** Removes the goal, counting the change if the set had it. */
+        @Override
+        public boolean remove( Object goal ) {
+            if( !super.remove( goal ) ) return false;
+            changes++;
+            return true;
+        }
+        
+        /** Removes all goals matching the filter, counting the change if any were removed. */
+        @Override
+        public boolean removeIf( Predicate<? super PrioritizedGoal> filter ) {
+            if( !super.removeIf( filter ) ) return false;
+            changes++;
+            return true;
+        }
+        
+        /** Removes all goals, counting the change. */
+        @Override
+        public void clear() {
+            super.clear();
+            changes++;
+        }
+        
+        /** @return An iterator over the goals that counts any removal made through it. */
+        @Override
+        public Iterator<PrioritizedGoal> iterator() {
+            final Iterator<PrioritizedGoal> iterator = super.iterator();
+            return new Iterator<PrioritizedGoal>() {
+                @Override
+                public boolean hasNext() { return iterator.hasNext(); }
+                
+                @Override
+                public PrioritizedGoal next() { return iterator.next(); }
+                
+                @Override
+                public void remove() {
+                    iterator.remove();
+                    changes++;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package fathertoast.specialai.ai;
+
+import fathertoast.specialai.config.Config;
+import net.minecraft.entity.CreatureEntity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.MobEntity;
+import net.minecraft.entity.passive.AnimalEntity;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Everything needed to initialize this mod's AI that only depends on an entity's type and the config.
+ * <p>
+ * A plan is built from the first entity of each type that is initialized and reused for every later entity of that type
+ * until a config is reloaded, so each spawn only needs to roll its own chances. Anything that depends on the goals an
+ * entity currently has (such as its attack AI or where passive AI fits in) differs between entities of the same type, so it
+ * is not part of the plan.
+ */
+final class InitializationPlan {
+    /** The plans built so far, by entity type. Only used on the server thread. */
+    private static final Map<EntityType<?>, InitializationPlan> PLANS = new HashMap<>();
+    /** The config load count the cached plans were built for. */
+    private static int plansLoadCount = -1;
+    
+    /** @return The initialization plan for the entity's type. */
+    static InitializationPlan of( MobEntity entity ) {
+        final int loadCount = Config.getLoadCount();
+        if( plansLoadCount != loadCount ) {
+            PLANS.clear();
+            plansLoadCount = loadCount;
+        }
+        InitializationPlan plan = PLANS.get( entity.getType() );
+        if( plan == null ) {
+            plan = new InitializationPlan( entity );
+            PLANS.put( entity.getType(), plan );
+        }
+        return plan;
+    }
+    
+    /** The dodge chance and dodge power values, or null if the entity cannot dodge arrows. */
+    final double[] DODGE_VALUES;
+    /** The avoid explosions speed multiplier. */
+    final double AVOID_EXPLOSIONS;
+    /** True if the entity should be given the eat breeding items AI. */
+    final boolean EAT_BREEDING_ITEMS;
+    /** The chance for the entity to be depacified. */
+    final double DEPACIFY_CHANCE;
+    /** The chance for the entity to be aggressive. */
+    final double AGGRESSIVE_CHANCE;
+    /** The chance for the entity to call for help when hurt. */
+    final double CALL_FOR_HELP_CHANCE;
+    /** True if the entity should use the small rider AI. */
+    final boolean RIDER_SMALL;
+    /** The chance for the entity to be a rider. */
+    final double RIDER_CHANCE;
+    /** The chance for the entity to gain idle griefing AI. */
+    final double GRIEF_CHANCE;
+    /** The chance for the entity to gain idle fiddling AI. */
+    final double FIDDLE_CHANCE;
+    /** The chance for the entity to gain door-breaking AI. */
+    final double DOOR_BREAK_CHANCE;
+    /** The chances for the entity to gain each elite AI, or null if the entity cannot gain elite AI. */
+    final double[] ELITE_CHANCES;
+    
+    /** Builds the plan for an entity's type. */
+    private InitializationPlan( MobEntity entity ) {
+        DODGE_VALUES = Config.GENERAL.REACTIONS.dodgeArrowsList.getValues( entity );
+        
+        if( entity instanceof CreatureEntity ) {
+            AVOID_EXPLOSIONS = Config.GENERAL.REACTIONS.avoidExplosionsList.getValue( entity );
+            EAT_BREEDING_ITEMS = Config.GENERAL.ANIMALS.eatBreedingItems.get() && entity instanceof AnimalEntity;
+            DEPACIFY_CHANCE = Config.GENERAL.ANIMALS.depacifyList.getValue( entity );
+            AGGRESSIVE_CHANCE = Config.GENERAL.ANIMALS.aggressiveList.getValue( entity );
+        }
+        else {
+            AVOID_EXPLOSIONS = 0.0;
+            EAT_BREEDING_ITEMS = false;
+            DEPACIFY_CHANCE = 0.0;
+            AGGRESSIVE_CHANCE = 0.0;
+        }
+        
+        CALL_FOR_HELP_CHANCE = Config.GENERAL.REACTIONS.callForHelpList.getValue( entity );
+        
+        // Small rider whitelist is a special case, so it gets priority over the normal whitelist
+        RIDER_SMALL = Config.GENERAL.JOCKEYS.riderWhitelistSmall.get().contains( entity );
+        if( Config.GENERAL.JOCKEYS.riderBlacklist.get().contains( entity ) ) {
+            RIDER_CHANCE = 0.0;
+        }
+        else if( RIDER_SMALL ) {
+            RIDER_CHANCE = Config.GENERAL.JOCKEYS.riderWhitelistSmall.get().getValue( entity );
+        }
+        else {
+            RIDER_CHANCE = Config.GENERAL.JOCKEYS.riderWhitelist.get().getValue( entity );
+        }
+        
+        GRIEF_CHANCE = Config.IDLE.GRIEFING.entityList.getValue( entity );
+        FIDDLE_CHANCE = Config.IDLE.FIDDLING.entityList.getValue( entity );
+        DOOR_BREAK_CHANCE = Config.GENERAL.DOOR_BREAKING.entityList.getValue( entity );
+        ELITE_CHANCES = Config.ELITE_AI.GENERAL.entityList.getValues( entity );
+    }
+}
@@ -0,0 +1,46 @@
+package fathertoast.specialai.ai;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.MobEntity;
+import net.minecraft.entity.projectile.ProjectileEntity;
+
+/**
+ * Which of this mod's handling paths apply to an entity class when an entity of that class joins a world.
+ * <p>
+ * Most entities that join a world (items, xp orbs, falling blocks, and so on) are of no interest to this mod, so this lets
+ * them be skipped with a single lookup. Interest only depends on the entity class, never on the config, since mobs keep
+ * their saved AI choices (such as a dodge chance) even after the config would no longer give them out.
+ */
+final class JoinInterest {
+    /** The interest for entity classes this mod does nothing with. */
+    private static final JoinInterest NONE = new JoinInterest( false, false );
+    
+    /** The interest for each entity class seen so far. */
+    private static final ClassValue<JoinInterest> TABLE = new ClassValue<JoinInterest>() {
+        @Override
+        protected JoinInterest computeValue( Class<?> type ) { return JoinInterest.computeValue( type ); }
+    };
+    
+    /** @return The handling paths that apply to the entity. */
+    static JoinInterest of( Entity entity ) { return TABLE.get( entity.getClass() ); }
+    
+    /** @return The handling paths that apply to entities of the given class. */
+    private static JoinInterest computeValue( Class<?> type ) {
+        final boolean dodgeCheck = ProjectileEntity.class.isAssignableFrom( type );
+        final boolean initialize = MobEntity.class.isAssignableFrom( type );
+        return dodgeCheck || initialize ? new JoinInterest( dodgeCheck, initialize ) : NONE;
+    }
+    
+    /** True if entities of this class are projectiles that mobs may try to dodge. */
+    final boolean DODGE_CHECK;
+    /** True if entities of this class are mobs that need their AI initialized. */
+    final boolean INITIALIZE;
+    
+    private JoinInterest( boolean dodgeCheck, boolean initialize ) {
+        DODGE_CHECK = dodgeCheck;
+        INITIALIZE = initialize;
+    }
+    
+    /** @return True if no handling paths apply. */
+    boolean isNone() { return this == NONE; }
+}
@@ -0,0 +1,281 @@
+package fathertoast.specialai.ai;
+
+import fathertoast.specialai.ModCore;
+import fathertoast.specialai.ai.elite.EliteAIType;
+import fathertoast.specialai.util.NBTHelper;
+import net.minecraft.entity.MobEntity;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.INBT;
+import net.minecraft.nbt.IntArrayNBT;
+import net.minecraft.util.Direction;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.CapabilityInject;
+import net.minecraftforge.common.capabilities.CapabilityManager;
+import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import net.minecraftforge.common.capabilities.ICapabilitySerializable;
+import net.minecraftforge.common.util.LazyOptional;
+
+import javax.annotation.Nullable;
+
+/**
+ * Data this mod keeps on each server-side mob, attached as a capability.
+ * <p>
+ * This holds the mob's rolled AI decisions as packed primitives and saves them as a single int array. Decisions that
+ * were saved as separate keys in the mob's persistent data (by older versions, or NBT-edited onto a mob) are moved in here
+ * when the mob is initialized.
+ */
+public final class MobAIData {
+    /** The key this capability is attached to mobs with. */
+    public static final ResourceLocation KEY = new ResourceLocation( ModCore.MOD_ID, "ai_data" );
+    
+    /** The current save format version. */
+    private static final int VERSION = 2;
+    // The index of each value in the saved int array.
+    private static final int INDEX_VERSION = 0;
+    private static final int INDEX_FLAGS = 1;
+    private static final int INDEX_DODGE_ARROWS = 2;
+    private static final int INDEX_AVOID_EXPLOSIONS = 3;
+    private static final int INDEX_ELITE_AI = 4;
+    /** The length of the saved int array. */
+    private static final int SAVE_LENGTH = 5;
+    /** The length of the saved int array in version 1, which had no elite AI bitmask. */
+    private static final int SAVE_LENGTH_V1 = 4;
+    
+    // Flag bits for decisions that are not yes/no choices. The bit numbers are saved, so they must never change.
+    private static final int DODGE_ARROWS_DECIDED = 1 << 16;
+    private static final int AVOID_EXPLOSIONS_DECIDED = 1 << 17;
+    private static final int ELITE_AI_DECIDED = 1 << 18;
+    private static final int FORCE_INIT = 1 << 19;
+    
+    // Legacy persistent data keys that are migrated into the flags or float fields.
+    private static final String TAG_DODGE_ARROWS = "dodge_arrows";
+    private static final String TAG_AVOID_EXPLOSIONS = "avoid_explosions";
+    private static final String TAG_FORCE_INIT = "force_init";
+    /**
+     * The persistent data key for the elite AI compound. This only holds the extra data for elite AIs that need it, though any
+     * legacy elite AI keys in it are migrated. Its presence means elite AI was decided.
+     */
+    public static final String TAG_ELITE_AI = "elite_ai";
+    
+    /** The capability instance. Injected once the capability has been registered. */
+    @CapabilityInject( MobAIData.class )
+    public static Capability<MobAIData> CAPABILITY = null;
+    
+    /** Registers this capability. Called during common setup. */
+    public static void register() {
+        CapabilityManager.INSTANCE.register( MobAIData.class, new Capability.IStorage<MobAIData>() {
+            /** @return The data to save. This capability manages its own saving. */
+            @Nullable
+            @Override
+            public INBT writeNBT( Capability<MobAIData> capability, MobAIData instance, Direction side ) { return null; }
+            
+            /** Loads saved data. This capability manages its own loading. */
+            @Override
+            public void readNBT( Capability<MobAIData> capability, MobAIData instance, Direction side, INBT nbt ) { }
+        }, MobAIData::new );
+    }
+    
+    /** @return A new provider to attach this capability to a mob with. */
+    public static ICapabilityProvider createProvider() { return new Provider(); }
+    
+    /** @return The mob's data, or null if the mob does not have this capability (such as on the client side). */
+    @Nullable
+    public static MobAIData of( MobEntity entity ) { return entity.getCapability( CAPABILITY ).orElse( null ); }
+    
+    /** The packed decision flags. */
+    private int flags;
+    /** The rolled arrow dodge chance. */
+    private float dodgeArrows;
+    /** The rolled avoid explosions speed multiplier. */
+    private float avoidExplosions;
+    /** The bitmask of elite AI types the mob has. See {@link EliteAIType#getBit()}. */
+    private int eliteAI;
+    
+    /** The index of the mob's action goals. Null until first used. */
+    private GoalIndex goals;
+    /** The index of the mob's target goals. Null until first used. */
+    private GoalIndex targets;
+    
+    /** @return The index of the mob's action goals, building it if needed. */
+    GoalIndex getGoals( MobEntity entity ) {
+        if( goals == null ) goals = new GoalIndex( entity.goalSelector );
+        return goals;
+    }
+    
+    /** @return The index of the mob's target goals, building it if needed. */
+    GoalIndex getTargets( MobEntity entity ) {
+        if( targets == null ) targets = new GoalIndex( entity.targetSelector );
+        return targets;
+    }
+    
+    /** @return True if the yes/no choice has been decided for this mob. */
+    boolean isDecided( Choice choice ) { return (flags & choice.DECIDED_BIT) != 0; }
+    
+    /** @return The mob's decided yes/no choice. False if not decided. */
+    boolean get( Choice choice ) { return (flags & choice.VALUE_BIT) != 0; }
+    
+    /** Decides a yes/no choice for this mob. */
+    void set( Choice choice, boolean value ) {
+        flags = (value ? flags | choice.VALUE_BIT : flags & ~choice.VALUE_BIT) | choice.DECIDED_BIT;
+    }
+    
+    /** @return True if the arrow dodge chance has been decided for this mob. */
+    boolean isDodgeArrowsDecided() { return (flags & DODGE_ARROWS_DECIDED) != 0; }
+    
+    /** @return The mob's arrow dodge chance. */
+    float getDodgeArrows() { return dodgeArrows; }
+    
+    /** Decides the arrow dodge chance for this mob. */
+    void setDodgeArrows( float value ) {
+        dodgeArrows = value;
+        flags |= DODGE_ARROWS_DECIDED;
+    }
+    
+    /** @return True if the avoid explosions speed multiplier has been decided for this mob. */
+    boolean isAvoidExplosionsDecided() { return (flags & AVOID_EXPLOSIONS_DECIDED) != 0; }
+    
+    /** @return The mob's avoid explosions speed multiplier. */
+    float getAvoidExplosions() { return avoidExplosions; }
+    
+    /** Decides the avoid explosions speed multiplier for this mob. */
+    void setAvoidExplosions( float value ) {
+        avoidExplosions = value;
+        flags |= AVOID_EXPLOSIONS_DECIDED;
+    }
+    
+    /** @return True if elite AI has been decided for this mob. */
+    boolean isEliteAIDecided() { return (flags & ELITE_AI_DECIDED) != 0; }
+    
+    /** Marks elite AI as decided for this mob, so no elite AI will be rolled for it. */
+    public void setEliteAIDecided() { flags |= ELITE_AI_DECIDED; }
+    
+    /** @return The bitmask of elite AI types the mob has. */
+    public int getEliteAI() { return eliteAI; }
+    
+    /** Gives the mob an elite AI type. */
+    public void addEliteAI( EliteAIType ai ) { eliteAI |= ai.getBit(); }
+    
+    /** @return True if the mob should apply its one-time elite AI effects (equipment, attributes) the next time it is initialized. */
+    boolean isForceInit() { return (flags & FORCE_INIT) != 0; }
+    
+    /** Sets whether the mob should apply its one-time elite AI effects the next time it is initialized. */
+    void setForceInit( boolean value ) { flags = value ? flags | FORCE_INIT : flags & ~FORCE_INIT; }
+    
+    /**
+     * Moves any decisions saved as separate keys in the mob's persistent data into this capability.
+     * Keys present in the persistent data replace the decisions already here, so NBT-edited keys take effect.
+     */
+    void migrateLegacyData( MobEntity entity ) {
+        final CompoundNBT data = entity.getPersistentData();
+        if( !data.contains( ModCore.MOD_ID, NBTHelper.ID_COMPOUND ) ) return;
+        final CompoundNBT tag = data.getCompound( ModCore.MOD_ID );
+        
+        for( Choice choice : Choice.values() ) {
+            if( tag.contains( choice.LEGACY_KEY, NBTHelper.ID_NUMERICAL ) ) {
+                set( choice, tag.getBoolean( choice.LEGACY_KEY ) );
+                tag.remove( choice.LEGACY_KEY );
+            }
+        }
+        if( tag.contains( TAG_DODGE_ARROWS, NBTHelper.ID_NUMERICAL ) ) {
+            setDodgeArrows( tag.getFloat( TAG_DODGE_ARROWS ) );
+            tag.remove( TAG_DODGE_ARROWS );
+        }
+        if( tag.contains( TAG_AVOID_EXPLOSIONS, NBTHelper.ID_NUMERICAL ) ) {
+            setAvoidExplosions( tag.getFloat( TAG_AVOID_EXPLOSIONS ) );
+            tag.remove( TAG_AVOID_EXPLOSIONS );
+        }
+        if( tag.contains( TAG_FORCE_INIT, NBTHelper.ID_NUMERICAL ) ) {
+            setForceInit( tag.getBoolean( TAG_FORCE_INIT ) );
+            tag.remove( TAG_FORCE_INIT );
+        }
+        if( tag.contains( TAG_ELITE_AI, NBTHelper.ID_COMPOUND ) ) {
+            setEliteAIDecided();
+            
+            final CompoundNBT eliteTag = tag.getCompound( TAG_ELITE_AI );
+            for( EliteAIType ai : EliteAIType.values() ) {
+                if( eliteTag.contains( ai.getKey(), NBTHelper.ID_NUMERICAL ) ) {
+                    if( eliteTag.getBoolean( ai.getKey() ) ) addEliteAI( ai );
+                    eliteTag.remove( ai.getKey() );
+                }
+            }
+            if( eliteTag.isEmpty() ) tag.remove( TAG_ELITE_AI );
+        }
+        
+        // Don't leave an empty compound behind
+        if( tag.isEmpty() ) data.remove( ModCore.MOD_ID );
+    }
+    
+    /** @return This mob's decisions, in save format. */
+    private IntArrayNBT save() {
+        final int[] save = new int[SAVE_LENGTH];
+        save[INDEX_VERSION] = VERSION;
+        save[INDEX_FLAGS] = flags;
+        save[INDEX_DODGE_ARROWS] = Float.floatToIntBits( dodgeArrows );
+        save[INDEX_AVOID_EXPLOSIONS] = Float.floatToIntBits( avoidExplosions );
+        save[INDEX_ELITE_AI] = eliteAI;
+        return new IntArrayNBT( save );
+    }
+    
+    /** Loads this mob's decisions from save format. */
+    private void load( IntArrayNBT tag ) {
+        final int[] save = tag.getAsIntArray();
+        final int version = save.length > 0 ? save[INDEX_VERSION] : -1;
+        if( !(version == VERSION && save.length >= SAVE_LENGTH || version == 1 && save.length >= SAVE_LENGTH_V1) ) {
+            ModCore.LOG.warn( "Discarding unrecognized saved AI data (version {}, length {})", version, save.length );
+            return;
+        }
+        flags = save[INDEX_FLAGS];
+        dodgeArrows = Float.intBitsToFloat( save[INDEX_DODGE_ARROWS] );
+        avoidExplosions = Float.intBitsToFloat( save[INDEX_AVOID_EXPLOSIONS] );
+        // Version 1 kept elite AI in persistent data, which is migrated when the mob is initialized
+        eliteAI = version == 1 ? 0 : save[INDEX_ELITE_AI];
+    }
+    
+    /** The yes/no choices made for each mob. */
+    enum Choice {
+        DEPACIFY( 0, "depacify" ),
+        AGGRESSIVE( 1, "aggressive" ),
+        CALL_FOR_HELP( 2, "call_for_help" ),
+        RIDER( 3, "rider" ),
+        GRIEF( 4, "griefing" ),
+        FIDDLE( 5, "fiddling" ),
+        DOOR_BREAK( 6, "door_breaking" );
+        
+        /** The flag bit set when this choice has been decided. */
+        final int DECIDED_BIT;
+        /** The flag bit holding the decided value of this choice. */
+        final int VALUE_BIT;
+        /** The key this choice was saved under in the mob's persistent data. */
+        final String LEGACY_KEY;
+        
+        /** @param id A unique id for this choice, between 0 and 7. This is saved, so it must never change. */
+        Choice( int id, String legacyKey ) {
+            DECIDED_BIT = 1 << (id * 2);
+            VALUE_BIT = 1 << (id * 2 + 1);
+            LEGACY_KEY = legacyKey;
+        }
+    }
+    
+    /** Provides and saves the capability for a single mob. */
+    private static final class Provider implements ICapabilitySerializable<IntArrayNBT> {
+        /** The mob's data. */
+        private final MobAIData DATA = new MobAIData();
+        /** The mob's data, as returned to capability requests. */
+        private final LazyOptional<MobAIData> INSTANCE = LazyOptional.of( () -> DATA );
+        
+        /** @return The capability instance, if the requested capability is this one. */
+        @Override
+        public <T> LazyOptional<T> getCapability( Capability<T> capability, @Nullable Direction side ) {
+            return capability == CAPABILITY ? INSTANCE.cast() : LazyOptional.empty();
+        }
+        
+        /** @return The mob's data, in save format. */
+        @Override
+        public IntArrayNBT serializeNBT() { return DATA.save(); }
+        
+        /** Loads the mob's data from save format. */
+        @Override
+        public void deserializeNBT( IntArrayNBT tag ) { DATA.load( tag ); }
+    }
+}
@@ -0,0 +1,232 @@
+package fathertoast.specialai.ai;
+
+import fathertoast.specialai.config.Config;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.MobEntity;
+import net.minecraft.pathfinding.*;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Hands out paths for this mod's AI goals, limiting how much time each world spends pathfinding per tick.
+ * <p>
+ * Each path found is shared for a short time with other mobs of the same type and size heading to the same block. A ground
+ * mob starting close to the shared path is given its own copy, with a short prefix from the mob's position onto the path,
+ * instead of finding a new path. The prefix is only used if every block it crosses is walkable and clear for the mob. Paths
+ * that must be found are charged to a per-world time budget by how long the search took; mobs near a player may use all
+ * of the budget, while mobs farther away are only given the first half of it. Only used on the server thread.
+ */
+public final class PathBroker {
+    /** The number of ticks a path is shared for after it is found. */
+    private static final int SHARE_TICKS = 10;
+    /** The number of nodes at the start of a shared path that are checked for a nearby joining point. */
+    private static final int SPLICE_SEARCH = 4;
+    /** The maximum horizontal (Manhattan) distance from a mob to the point it joins a shared path at. */
+    private static final int SPLICE_RANGE = 2;
+    
+    /** The broker for each world. */
+    private static final Map<World, PathBroker> BROKERS = new HashMap<>();
+    
+    /**
+     * Paths the mob to an entity, like {@link PathNavigator#moveTo(Entity, double)}.
+     *
+     * @return True if the mob was given a path.
+     */
+    public static boolean moveTo( MobEntity mob, Entity target, double speed ) {
+        final Path path = createPath( mob, target, 1 );
+        return path != null && mob.getNavigation().moveTo( path, speed );
+    }
+    
+    /**
+     * Paths the mob to a position, like {@link PathNavigator#moveTo(double, double, double, double)}.
+     *
+     * @return True if the mob was given a path.
+     */
+    public static boolean moveTo( MobEntity mob, double x, double y, double z, double speed ) {
+        final BlockPos destination = new BlockPos( x, y, z );
+        final Path path = findPath( mob, destination, ( navigator ) -> navigator.createPath( destination, 1 ) );
+        return path != null && mob.getNavigation().moveTo( path, speed );
+    }
+    
+    /**
+     * Finds a path for the mob to an entity, like {@link PathNavigator#createPath(Entity, int)}.
+     *
+     * @return The path, or null if there is none or there is no budget left to find one this tick.
+     */
+    @Nullable
+    public static Path createPath( MobEntity mob, Entity target, int accuracy ) {
+        return findPath( mob, target.blockPosition(), ( navigator ) -> navigator.createPath( target, accuracy ) );
+    }
+    
+    /** Called when a world unloads to discard its broker. */
+    static void unload( World world ) { BROKERS.remove( world ); }
+    
+    /** @return A path to the destination, either shared or newly found, or null if the mob could not be given one. */
+    @Nullable
+    private static Path findPath( MobEntity mob, BlockPos destination, Function<PathNavigator, Path> pathfinder ) {
+        if( mob.level.isClientSide() ) return pathfinder.apply( mob.getNavigation() );
+        
+        final PathBroker broker = BROKERS.computeIfAbsent( mob.level, ( key ) -> new PathBroker() );
+        broker.update( mob.level.getGameTime() );
+        
+        Path path = broker.getSharedPath( mob, destination );
+        if( path == null ) {
+            if( !broker.canFindPath( mob ) ) return null;
+            final long startTime = System.nanoTime();
+            path = pathfinder.apply( mob.getNavigation() );
+            broker.timeUsed += System.nanoTime() - startTime;
+            if( path != null ) broker.share( mob, destination, path );
+        }
+        return path;
+    }
+    
+    /** The paths found recently, by mob type and size, then by destination block. */
+    private final Map<ShareKey, Long2ObjectOpenHashMap<SharedPath>> SHARED = new HashMap<>();
+    
+    /** The game time the budget was last reset on. */
+    private long currentTime = Long.MIN_VALUE;
+    /** The time (in nanoseconds) spent finding paths so far this tick. */
+    private long timeUsed;
+    
+    private PathBroker() { }
+    
+    /** Resets the budget and forgets expired shared paths if the game time has changed. */
+    private void update( long time ) {
+        if( currentTime == time ) return;
+        currentTime = time;
+        timeUsed = 0L;
+        SHARED.values().removeIf( ( paths ) -> {
+            paths.values().removeIf( ( shared ) -> time - shared.TIME > SHARE_TICKS );
+            return paths.isEmpty();
+        } );
+    }
+    
+    /** @return True if there is enough budget left this tick for the mob to find a new path. */
+    private boolean canFindPath( MobEntity mob ) {
+        final long budget = TimeUnit.MICROSECONDS.toNanos( Config.GENERAL.PERFORMANCE.pathTickBudget.get() );
+        if( timeUsed < budget / 2 ) return true;
+        return timeUsed < budget && mob.level.hasNearbyAlivePlayer( mob.getX(), mob.getY(), mob.getZ(),
+                Config.GENERAL.PERFORMANCE.pathPriorityRangeSqr.getSqrRoot() );
+    }
+    
+    /** Makes a newly found path available to other mobs of the same type and size heading to the same destination. */
+    private void share( MobEntity mob, BlockPos destination, Path path ) {
+        SHARED.computeIfAbsent( new ShareKey( mob ), ( key ) -> new Long2ObjectOpenHashMap<>() )
+                .put( destination.asLong(), new SharedPath( path, currentTime ) );
+    }
+    
+    /** @return A copy of a shared path to the destination that the mob can join from where it is, or null if there is none. */
+    @Nullable
+    private Path getSharedPath( MobEntity mob, BlockPos destination ) {
+        // Only walking mobs can be checked for a safe step onto the shared path
+        if( !(mob.getNavigation() instanceof GroundPathNavigator) ) return null;
+        
+        final Long2ObjectOpenHashMap<SharedPath> paths = SHARED.get( new ShareKey( mob ) );
+        final SharedPath shared = paths == null ? null : paths.get( destination.asLong() );
+        if( shared == null ) return null;
+        
+        final BlockPos start = mob.blockPosition();
+        final int searchEnd = Math.min( SPLICE_SEARCH, shared.PATH.getNodeCount() );
+        for( int i = 0; i < searchEnd; i++ ) {
+            final PathPoint node = shared.PATH.getNode( i );
+            if( node.y == start.getY() && Math.abs( node.x - start.getX() ) + Math.abs( node.z - start.getZ() ) <= SPLICE_RANGE &&
+                    canStepTo( mob, start, node ) ) {
+                return shared.spliceFrom( i, start );
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * @return True if the mob can walk straight from its block to the node on the same level. Every block in the area
+     * between them must be walkable for the mob, and its bounding box must fit there.
+     */
+    private static boolean canStepTo( MobEntity mob, BlockPos start, PathPoint node ) {
+        final BlockPos.Mutable pos = new BlockPos.Mutable();
+        for( int x = Math.min( start.getX(), node.x ); x <= Math.max( start.getX(), node.x ); x++ ) {
+            for( int z = Math.min( start.getZ(), node.z ); z <= Math.max( start.getZ(), node.z ); z++ ) {
+                if( x == start.getX() && z == start.getZ() ) continue;
+                
+                final PathNodeType type = WalkNodeProcessor.getBlockPathTypeStatic( mob.level, pos.set( x, start.getY(), z ) );
+                if( type == PathNodeType.OPEN || mob.getPathfindingMalus( type ) < 0.0F ) return false;
+                
+                final AxisAlignedBB box = mob.getBoundingBox().move( x + 0.5 - mob.getX(), 0.0, z + 0.5 - mob.getZ() );
+                if( !mob.level.noCollision( mob, box ) ) return false;
+            }
+        }
+        return true;
+    }
+    
+    /** Identifies mobs that can follow each other's paths: mobs of the same type with the same bounding box size. */
+    private static final class ShareKey {
+        /** The mob type. */
+        private final EntityType<?> TYPE;
+        /** The mob's bounding box width. */
+        private final float WIDTH;
+        /** The mob's bounding box height. */
+        private final float HEIGHT;
+        
+        ShareKey( MobEntity mob ) {
+            TYPE = mob.getType();
+            WIDTH = mob.getBbWidth();
+            HEIGHT = mob.getBbHeight();
+        }
+        
+        /** @return True if the other object is a key for the same type and size. */
+        @Override
+        public boolean equals( Object other ) {
+            if( !(other instanceof ShareKey) ) return false;
+            final ShareKey key = (ShareKey) other;
+            return TYPE == key.TYPE && WIDTH == key.WIDTH && HEIGHT == key.HEIGHT;
+        }
+        
+        /** @return A hash of the type and size. */
+        @Override
+        public int hashCode() { return (TYPE.hashCode() * 31 + Float.hashCode( WIDTH )) * 31 + Float.hashCode( HEIGHT ); }
+    }
+    
+    /** A path found for one mob that may be copied for others. */
+    private static final class SharedPath {
+        /** The path. This is never followed directly, since following a path changes its progress. */
+        final Path PATH;
+        /** The game time the path was found at. */
+        final long TIME;
+        
+        SharedPath( Path path, long time ) {
+            // Copy the path now, since the mob that found it will start following it
+            PATH = new Path( nodesFrom( path, 0 ), path.getTarget(), path.canReach() );
+            TIME = time;
+        }
+        
+        /** @return A new path starting at the given position and continuing along this path from the given node. */
+        Path spliceFrom( int index, BlockPos start ) {
+            final List<PathPoint> nodes = new ArrayList<>( PATH.getNodeCount() - index + 1 );
+            final PathPoint first = PATH.getNode( index );
+            if( first.x != start.getX() || first.z != start.getZ() ) {
+                nodes.add( new PathPoint( start.getX(), start.getY(), start.getZ() ) );
+            }
+            nodes.addAll( nodesFrom( PATH, index ) );
+            return new Path( nodes, PATH.getTarget(), PATH.canReach() );
+        }
+        
+        /** @return The nodes of a path from the given index to the end. */
+        private static List<PathPoint> nodesFrom( Path path, int index ) {
+            final List<PathPoint> nodes = new ArrayList<>( path.getNodeCount() - index );
+            for( int i = index; i < path.getNodeCount(); i++ ) {
+                nodes.add( path.getNode( i ) );
+            }
+            return nodes;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package fathertoast.specialai.ai;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+import net.minecraft.world.server.ServerWorld;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the loaded entities that are instances of each entity class in each chunk of a server world.
+ * <p>
+ * A class is only counted once something has asked about it, at which point the loaded entities of that class (including
+ * subclasses) are counted once, and from then on the counts are kept current by entities joining, leaving and moving
+ * between chunks. Only used on the server thread.
+ */
+public final class PopulationTracker {
+    /** The tracker for each world. */
+    private static final Map<World, PopulationTracker> TRACKERS = new HashMap<>();
+    /** The memberships of entities that are not counted in any population. */
+    private static final Population[] NO_POPULATIONS = new Population[0];
+    
+    /**
+     * @param world The world to count in.
+     * @param type  The entity class to count instances of.
+     * @param area  The area to count within.
+     * @return The number of instances of the class in all chunks overlapping the area. This is never less than the number
+     * of those entities actually in the area, so a count under a limit means the area is certainly under it.
+     */
+    public static int countUpperBound( ServerWorld world, Class<? extends Entity> type, AxisAlignedBB area ) {
+        final PopulationTracker tracker = TRACKERS.computeIfAbsent( world, ( key ) -> new PopulationTracker() );
+        final Population population = tracker.getPopulation( world, type );
+        
+        final int minX = MathHelper.floor( area.minX ) >> 4;
+        final int minZ = MathHelper.floor( area.minZ ) >> 4;
+        final int maxX = MathHelper.floor( area.maxX ) >> 4;
+        final int maxZ = MathHelper.floor( area.maxZ ) >> 4;
+        int count = 0;
+        for( int x = minX; x <= maxX; x++ ) {
+            for( int z = minZ; z <= maxZ; z++ ) {
+                count += population.COUNTS.get( ChunkPos.asLong( x, z ) );
+            }
+        }
+        return count;
+    }
+    
+    /** Called when any entity joins a server world. */
+    static void onJoin( Entity entity ) {
+        for( Population population : getTrackedPopulations( entity ) ) {
+            population.add( entity, chunkKey( entity ) );
+        }
+    }
+    
+    /** Called when any entity leaves a server world. */
+    static void onLeave( Entity entity ) {
+        for( Population population : getTrackedPopulations( entity ) ) {
+            population.remove( entity );
+        }
+    }
+    
+    /** Called when any entity in a server world moves into a different chunk. */
+    static void onEnterChunk( Entity entity, int chunkX, int chunkZ ) {
+        for( Population population : getTrackedPopulations( entity ) ) {
+            if( population.remove( entity ) ) population.add( entity, ChunkPos.asLong( chunkX, chunkZ ) );
+        }
+    }
+    
+    /** Called when a world unloads to discard its tracker. */
+    static void unload( World world ) { TRACKERS.remove( world ); }
+    
+    /** @return The populations in the entity's world that the entity is counted in. */
+    private static Population[] getTrackedPopulations( Entity entity ) {
+        final PopulationTracker tracker = TRACKERS.get( entity.level );
+        return tracker == null ? NO_POPULATIONS : tracker.getMemberships( entity.getClass() );
+    }
+    
+    /** @return The key for the chunk the entity's position is in. */
+    private static long chunkKey( Entity entity ) {
+        return ChunkPos.asLong( MathHelper.floor( entity.getX() ) >> 4, MathHelper.floor( entity.getZ() ) >> 4 );
+    }
+    
+    /** The population of each counted entity class. */
+    private final Map<Class<?>, Population> POPULATIONS = new HashMap<>();
+    /** The populations that instances of each entity class seen so far are counted in. Cleared when a new class is counted. */
+    private final Map<Class<?>, Population[]> MEMBERSHIPS = new HashMap<>();
+    
+    private PopulationTracker() { }
+    
+    /** @return The population of the entity class, counting its loaded instances first if it was not counted yet. */
+    private Population getPopulation( ServerWorld world, Class<? extends Entity> type ) {
+        Population population = POPULATIONS.get( type );
+        if( population == null ) {
+            population = new Population();
+            for( Entity entity : world.getAllEntities() ) {
+                if( type.isInstance( entity ) ) population.add( entity, chunkKey( entity ) );
+            }
+            POPULATIONS.put( type, population );
+            MEMBERSHIPS.clear();
+        }
+        return population;
+    }
+    
+    /** @return The populations that instances of the entity class are counted in. */
+    private Population[] getMemberships( Class<? extends Entity> entityClass ) {
+        Population[] memberships = MEMBERSHIPS.get( entityClass );
+        if( memberships == null ) {
+            final List<Population> found = new ArrayList<>();
+            for( Map.Entry<Class<?>, Population> entry : POPULATIONS.entrySet() ) {
+                if( entry.getKey().isAssignableFrom( entityClass ) ) found.add( entry.getValue() );
+            }
+            memberships = found.isEmpty() ? NO_POPULATIONS : found.toArray( NO_POPULATIONS );
+            MEMBERSHIPS.put( entityClass, memberships );
+        }
+        return memberships;
+    }
+    
+    /** The counted entities of a single type. */
+    private static final class Population {
+        /** The number of entities in each chunk, by chunk key. Chunks with no entities are absent. */
+        private final Long2IntOpenHashMap COUNTS = new Long2IntOpenHashMap();
+        /** The chunk key each entity is counted in, so it can be removed from the right chunk regardless of its position. */
+        private final Map<Entity, Long> CHUNKS = new HashMap<>();
+        
+        /** Counts the entity in the chunk, unless it is already counted. */
+        void add( Entity entity, long chunk ) {
+            if( CHUNKS.putIfAbsent( entity, chunk ) == null ) COUNTS.addTo( chunk, 1 );
+        }
+        
+        /** @return True if the entity was counted, after removing it from its chunk. */
+        boolean remove( Entity entity ) {
+            final Long chunk = CHUNKS.remove( entity );
+            if( chunk == null ) return false;
+            if( COUNTS.addTo( chunk, -1 ) <= 1 ) COUNTS.remove( (long) chunk );
+            return true;
+        }
+    }
+}
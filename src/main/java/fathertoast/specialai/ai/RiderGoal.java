@@ -67,7 +67,7 @@ public class RiderGoal extends Goal {
     /** Called when this AI is activated. */
     @Override
     public void start() {
-        mob.getNavigation().moveTo( targetMount.getX(), targetMount.getY(), targetMount.getZ(), SPEED_MULTIPLIER );
+        PathBroker.moveTo( mob, targetMount.getX(), targetMount.getY(), targetMount.getZ(), SPEED_MULTIPLIER );
     }
     
     /** Called each tick while this AI is active. */
@@ -81,7 +81,7 @@ public class RiderGoal extends Goal {
         }
         else if( mob.getNavigation().isDone() ) {
             // The target mount has moved away
-            mob.getNavigation().moveTo( targetMount.getX(), targetMount.getY(), targetMount.getZ(), SPEED_MULTIPLIER );
+            PathBroker.moveTo( mob, targetMount.getX(), targetMount.getY(), targetMount.getZ(), SPEED_MULTIPLIER );
         }
     }
     
@@ -0,0 +1,108 @@
+package fathertoast.specialai.ai;
+
+import fathertoast.specialai.config.Config;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.util.math.vector.Vector3d;
+import net.minecraft.world.World;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers the results of line of sight checks between pairs of entities for a short time, kept for each server world.
+ * <p>
+ * A remembered result is reused until it is older than the configured time to live, or until either entity has moved
+ * farther than the configured distance since the check was made. Only used on the server thread.
+ */
+public final class SightCache {
+    /** The number of ticks between each sweep for expired results. */
+    private static final int SWEEP_INTERVAL = 20;
+    
+    /** The cache for each world. */
+    private static final Map<World, SightCache> CACHES = new HashMap<>();
+    
+    /** The number of checks answered from a cache since the game started. */
+    private static long hits;
+    /** The number of checks that had to be made since the game started. */
+    private static long misses;
+    
+    /**
+     * @param viewer The entity looking.
+     * @param target The entity being looked for.
+     * @return True if the viewer can see the target, as {@link LivingEntity#canSee(Entity)}, using a recent result if possible.
+     */
+    public static boolean canSee( LivingEntity viewer, Entity target ) {
+        if( viewer.level.isClientSide() ) return viewer.canSee( target );
+        
+        final SightCache cache = CACHES.computeIfAbsent( viewer.level, ( key ) -> new SightCache() );
+        final long time = viewer.level.getGameTime();
+        cache.sweep( time );
+        
+        final long key = (long) viewer.getId() << 32 | target.getId() & 0xFFFFFFFFL;
+        final Result cached = cache.RESULTS.get( key );
+        if( cached != null && cached.isValid( viewer, target, time ) ) {
+            hits++;
+            return cached.VISIBLE;
+        }
+        misses++;
+        final boolean visible = viewer.canSee( target );
+        cache.RESULTS.put( key, new Result( viewer, target, time, visible ) );
+        return visible;
+    }
+    
+    /** @return The number of sight checks answered from a cache since the game started. */
+    public static long getHits() { return hits; }
+    
+    /** @return The number of sight checks that had to be made since the game started. */
+    public static long getMisses() { return misses; }
+    
+    /** Called when a world unloads to discard its cache. */
+    static void unload( World world ) { CACHES.remove( world ); }
+    
+    /** The remembered results, by the packed ids of the viewer and target. */
+    private final Long2ObjectOpenHashMap<Result> RESULTS = new Long2ObjectOpenHashMap<>();
+    
+    /** The game time of the last sweep for expired results. */
+    private long lastSweep;
+    
+    private SightCache() { }
+    
+    /** Forgets any expired results, if it has been long enough since this was last done. */
+    private void sweep( long time ) {
+        if( time - lastSweep < SWEEP_INTERVAL ) return;
+        lastSweep = time;
+        final int timeToLive = Config.GENERAL.PERFORMANCE.sightCacheTime.get();
+        RESULTS.values().removeIf( ( result ) -> time - result.TIME > timeToLive );
+    }
+    
+    /** The result of a single line of sight check. */
+    private static final class Result {
+        /** The viewer's position when the check was made. */
+        final Vector3d VIEWER_POS;
+        /** The target's position when the check was made. */
+        final Vector3d TARGET_POS;
+        /** The game time the check was made at. */
+        final long TIME;
+        /** True if the target could be seen. */
+        final boolean VISIBLE;
+        
+        Result( Entity viewer, Entity target, long time, boolean visible ) {
+            VIEWER_POS = viewer.position();
+            TARGET_POS = target.position();
+            TIME = time;
+            VISIBLE = visible;
+        }
+        
+        /** @return True if this result can still be used for the same viewer and target. */
+        boolean isValid( Entity viewer, Entity target, long time ) {
+            // Results always last the rest of the tick they were made in
+            if( time == TIME ) return true;
+            if( time - TIME > Config.GENERAL.PERFORMANCE.sightCacheTime.get() ) return false;
+            final double moveLimitSqr = Config.GENERAL.PERFORMANCE.sightCacheMoveLimitSqr.get();
+            return viewer.position().distanceToSqr( VIEWER_POS ) <= moveLimitSqr &&
+                    target.position().distanceToSqr( TARGET_POS ) <= moveLimitSqr;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package fathertoast.specialai.ai;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.MobEntity;
+import net.minecraft.world.World;
+
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * An index from each entity to the mobs that are targeting it, kept for each server world.
+ * <p>
+ * This is kept up to date as mobs change targets, so finding the allies fighting the same entity is a direct lookup
+ * instead of an area search. Mobs and targets are only weakly referenced, so mobs targeting each other do not keep each
+ * other loaded, and they are also dropped when they die or leave the world. Only used on the server thread.
+ */
+public final class TargetIndex {
+    /** The index for each world. */
+    private static final Map<World, TargetIndex> INDEXES = new HashMap<>();
+    
+    /**
+     * @param target The entity to look up.
+     * @return The mobs currently targeting the entity. This is a live view, so mob targets must not be changed while
+     * iterating over it.
+     */
+    public static Collection<MobEntity> attackersOf( LivingEntity target ) {
+        final TargetIndex index = INDEXES.get( target.level );
+        final Set<MobEntity> attackers = index == null ? null : index.ATTACKERS.get( target );
+        return attackers == null ? Collections.emptySet() : Collections.unmodifiableSet( attackers );
+    }
+    
+    /** Called when a mob changes its target. */
+    static void onSetTarget( MobEntity mob, @Nullable LivingEntity target ) {
+        if( mob.level.isClientSide() ) return;
+        final TargetIndex index = target == null ? INDEXES.get( mob.level ) :
+                INDEXES.computeIfAbsent( mob.level, ( key ) -> new TargetIndex() );
+        if( index != null ) index.setTarget( mob, target );
+    }
+    
+    /** Called when an entity dies or leaves its world to remove it from the index, both as a mob and as a target. */
+    static void remove( Entity entity ) {
+        final TargetIndex index = INDEXES.get( entity.level );
+        if( index == null ) return;
+        if( entity instanceof MobEntity ) index.setTarget( (MobEntity) entity, null );
+        index.ATTACKERS.remove( entity );
+    }
+    
+    /** Called when a world unloads to discard its index. */
+    static void unload( World world ) { INDEXES.remove( world ); }
+    
+    /** The mobs targeting each entity. */
+    private final Map<LivingEntity, Set<MobEntity>> ATTACKERS = new WeakHashMap<>();
+    /** The entity each mob is targeting, so it can be found again when the mob changes targets. */
+    private final Map<MobEntity, WeakReference<LivingEntity>> TARGETS = new WeakHashMap<>();
+    
+    private TargetIndex() { }
+    
+    /** Moves the mob from the attackers of its previous target to the attackers of its new target. */
+    private void setTarget( MobEntity mob, @Nullable LivingEntity target ) {
+        final WeakReference<LivingEntity> previousRef = target == null ? TARGETS.remove( mob ) :
+                TARGETS.put( mob, new WeakReference<>( target ) );
+        final LivingEntity previous = previousRef == null ? null : previousRef.get();
+        if( previous == target ) return;
+        
+        if( previous != null ) {
+            final Set<MobEntity> attackers = ATTACKERS.get( previous );
+            if( attackers != null ) {
+                attackers.remove( mob );
+                if( attackers.isEmpty() ) ATTACKERS.remove( previous );
+            }
+        }
+        if( target != null ) {
+            ATTACKERS.computeIfAbsent( target, ( key ) -> Collections.newSetFromMap( new WeakHashMap<>() ) ).add( mob );
+        }
+    }
+}
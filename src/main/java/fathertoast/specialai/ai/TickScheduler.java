@@ -0,0 +1,174 @@
+package fathertoast.specialai.ai;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.world.World;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs actions for a world at the end of that world's tick, after a delay, repeatedly, or once a condition is met.
+ * These actions are performed outside the AI tick, so they can safely do things like change entity equipment.
+ * <p>
+ * Actions are kept on a timing wheel, so each tick only looks at the actions that could be due that tick. Actions may be
+ * scheduled from any thread. An action with an owner entity is dropped, without running, once its owner leaves the world.
+ */
+public final class TickScheduler {
+    /** The number of slots in the wheel. Must be a power of 2. Actions due further ahead wait for the wheel to come around. */
+    private static final int WHEEL_SIZE = 64;
+    
+    /** The scheduler for each world, created as needed and removed when the world unloads. */
+    private static final Map<World, TickScheduler> SCHEDULERS = new HashMap<>();
+    
+    /** @return The scheduler for the given world. May be called from any thread. */
+    public static TickScheduler of( World world ) {
+        synchronized( SCHEDULERS ) {
+            return SCHEDULERS.computeIfAbsent( world, ( key ) -> new TickScheduler() );
+        }
+    }
+    
+    /** Called at the end of each server world tick to run that world's due actions. */
+    static void tick( World world ) {
+        final TickScheduler scheduler;
+        synchronized( SCHEDULERS ) {
+            scheduler = SCHEDULERS.get( world );
+        }
+        if( scheduler != null ) scheduler.tick();
+    }
+    
+    /** Called when a world unloads to discard its scheduler and any actions still waiting. */
+    static void unload( World world ) {
+        synchronized( SCHEDULERS ) {
+            SCHEDULERS.remove( world );
+        }
+    }
+    
+    /** Actions that have been scheduled since the last tick, waiting to be placed on the wheel. */
+    private final Queue<Job> INCOMING = new ConcurrentLinkedQueue<>();
+    /** The wheel of scheduled actions. Each slot holds the actions due on ticks that fall in that slot. */
+    private final List<List<Job>> WHEEL = new ArrayList<>( WHEEL_SIZE );
+    
+    /** The number of times this scheduler has ticked. */
+    private long currentTick;
+    
+    private TickScheduler() {
+        for( int i = 0; i < WHEEL_SIZE; i++ ) {
+            WHEEL.add( new ArrayList<>() );
+        }
+    }
+    
+    /**
+     * Schedules an action to run once.
+     *
+     * @param owner  The entity this action is for. If it leaves the world first, the action is dropped. May be null.
+     * @param delay  The number of ticks to wait before running the action. 0 runs it at the end of the current tick, or
+     *               the next tick if called while this scheduler is running actions.
+     * @param action The action to run.
+     * @return The scheduled job, which can be cancelled.
+     */
+    public Job schedule( @Nullable Entity owner, int delay, Runnable action ) {
+        return repeat( owner, delay, 0, () -> {
+            action.run();
+            return true;
+        } );
+    }
+    
+    /**
+     * Schedules an action to run repeatedly until it reports that it is done.
+     *
+     * @param owner  The entity this action is for. If it leaves the world, the action is dropped. May be null.
+     * @param delay  The number of ticks to wait before first running the action.
+     * @param period The number of ticks between each run of the action. If this is not positive, the action only runs once.
+     * @param action The action to run. Returns true when it is done and should not run again.
+     * @return The scheduled job, which can be cancelled.
+     */
+    public Job repeat( @Nullable Entity owner, int delay, int period, BooleanSupplier action ) {
+        final Job job = new Job( owner, Math.max( 0, delay ), period, action );
+        INCOMING.add( job );
+        return job;
+    }
+    
+    /**
+     * Schedules a condition to be checked periodically, and an action to run once the condition is met.
+     *
+     * @param owner     The entity this action is for. If it leaves the world, the action is dropped. May be null.
+     * @param interval  The number of ticks between each check of the condition. The first check is made right away.
+     * @param condition The condition to check.
+     * @param action    The action to run once the condition is met.
+     * @return The scheduled job, which can be cancelled.
+     */
+    public Job poll( @Nullable Entity owner, int interval, BooleanSupplier condition, Runnable action ) {
+        return repeat( owner, 0, Math.max( 1, interval ), () -> {
+            if( !condition.getAsBoolean() ) return false;
+            action.run();
+            return true;
+        } );
+    }
+    
+    /** Places newly scheduled actions on the wheel, then runs the actions due this tick. */
+    private void tick() {
+        Job job;
+        while( (job = INCOMING.poll()) != null ) {
+            job.dueTick = currentTick + job.DELAY;
+            place( job );
+        }
+        
+        // Swap out the current slot so that rescheduled actions can safely be placed back into it
+        final int slot = (int) (currentTick & (WHEEL_SIZE - 1));
+        final List<Job> due = WHEEL.get( slot );
+        if( !due.isEmpty() ) {
+            WHEEL.set( slot, new ArrayList<>() );
+            for( Job current : due ) {
+                if( current.isDropped() ) continue;
+                // Actions due on a later turn of the wheel stay where they are
+                if( current.dueTick > currentTick ) {
+                    place( current );
+                }
+                else if( !current.ACTION.getAsBoolean() && current.PERIOD > 0 ) {
+                    current.dueTick = currentTick + current.PERIOD;
+                    place( current );
+                }
+            }
+        }
+        currentTick++;
+    }
+    
+    /** Places a job in the wheel slot for its due tick. */
+    private void place( Job job ) { WHEEL.get( (int) (job.dueTick & (WHEEL_SIZE - 1)) ).add( job ); }
+    
+    /** An action scheduled to run on a world's tick. */
+    public static final class Job {
+        /** The entity this action is for, or null if it is not tied to an entity. */
+        private final Entity OWNER;
+        /** The number of ticks to wait before first running the action. */
+        private final int DELAY;
+        /** The number of ticks between each run of the action, or a non-positive number if it only runs once. */
+        private final int PERIOD;
+        /** The action. Returns true when it is done. */
+        private final BooleanSupplier ACTION;
+        
+        /** The tick this action will next run on. */
+        private long dueTick;
+        /** True if this action has been cancelled. */
+        private volatile boolean cancelled;
+        
+        private Job( @Nullable Entity owner, int delay, int period, BooleanSupplier action ) {
+            OWNER = owner;
+            DELAY = delay;
+            PERIOD = period;
+            ACTION = action;
+        }
+        
+        /** Cancels this action, so it will not run again. May be called from any thread. */
+        public void cancel() { cancelled = true; }
+        
+        /** @return True if this action should be discarded without running. */
+        private boolean isDropped() { return cancelled || OWNER != null && (OWNER.removed || !OWNER.isAddedToWorld()); }
+    }
+}
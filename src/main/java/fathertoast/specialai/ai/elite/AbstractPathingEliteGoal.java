@@ -1,5 +1,6 @@
 package fathertoast.specialai.ai.elite;
 
+import fathertoast.specialai.ai.PathBroker;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.MobEntity;
@@ -34,7 +35,7 @@ public abstract class AbstractPathingEliteGoal extends AbstractEliteGoal {
         
         // Actually path to the target
         pathedTargetPos = entity.position();
-        if( !mob.getNavigation().moveTo( entity, speed ) ) {
+        if( !PathBroker.moveTo( mob, entity, speed ) ) {
             // Apply larger penalty on failure
             ticksUntilNextPathRecalculation += 15;
         }
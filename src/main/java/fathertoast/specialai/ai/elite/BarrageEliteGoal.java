@@ -1,5 +1,6 @@
 package fathertoast.specialai.ai.elite;
 
+import fathertoast.specialai.ai.SightCache;
 import fathertoast.specialai.config.Config;
 import fathertoast.specialai.util.BlockHelper;
 import net.minecraft.command.arguments.EntityAnchorArgument;
@@ -42,7 +43,7 @@ public class BarrageEliteGoal extends AbstractEliteGoal {
         if( target != null ) {
             final double distanceSqr = mob.distanceToSqr( target );
             return distanceSqr <= Config.ELITE_AI.BARRAGE.rangeSqrMax.get() && distanceSqr >= Config.ELITE_AI.BARRAGE.rangeSqrMin.get()
-                    && mob.canSee( target );
+                    && SightCache.canSee( mob, target );
         }
         return false;
     }
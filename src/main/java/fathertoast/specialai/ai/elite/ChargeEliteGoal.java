@@ -1,6 +1,7 @@
 package fathertoast.specialai.ai.elite;
 
 import fathertoast.specialai.ai.AnimalMeleeAttackGoal;
+import fathertoast.specialai.ai.SightCache;
 import fathertoast.specialai.config.Config;
 import net.minecraft.command.arguments.EntityAnchorArgument;
 import net.minecraft.entity.Entity;
@@ -52,7 +53,7 @@ public class ChargeEliteGoal extends AbstractEliteGoal {
         if( target != null ) {
             final double distanceSqr = mob.distanceToSqr( target );
             return distanceSqr <= Config.ELITE_AI.CHARGE.rangeSqrMax.get() && distanceSqr >= Config.ELITE_AI.CHARGE.rangeSqrMin.get()
-                    && mob.canSee( target );
+                    && SightCache.canSee( mob, target );
         }
         return false;
     }
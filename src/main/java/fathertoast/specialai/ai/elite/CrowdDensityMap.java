@@ -0,0 +1,104 @@
+package fathertoast.specialai.ai.elite;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts of the entities in each 4x4x4 block cell of a world, built lazily and only kept for a single tick.
+ * <p>
+ * Cells are counted a whole chunk section at a time, the first time any cell in the section is asked for during a tick,
+ * so every lookup after that in the same area is just a sum of cached counts. Only used on the server thread.
+ */
+final class CrowdDensityMap {
+    /** The log2 of the cell size, in blocks. */
+    private static final int CELL_SHIFT = 2;
+    /** The log2 of the chunk section size, in blocks. */
+    private static final int SECTION_SHIFT = 4;
+    
+    /** The map for each world. */
+    private static final Map<World, CrowdDensityMap> MAPS = new HashMap<>();
+    
+    /** @return The density map for the world, cleared if it was built on an earlier tick. */
+    static CrowdDensityMap of( World world ) {
+        final CrowdDensityMap map = MAPS.computeIfAbsent( world, CrowdDensityMap::new );
+        if( map.builtTime != world.getGameTime() ) {
+            map.CELLS.clear();
+            map.SECTIONS.clear();
+            map.builtTime = world.getGameTime();
+        }
+        return map;
+    }
+    
+    /** Called when a world unloads to discard its map. */
+    static void unload( World world ) { MAPS.remove( world ); }
+    
+    /** The world this maps. */
+    private final World WORLD;
+    /** The number of entities in each counted cell, by cell key. Cells with no entities are absent. */
+    private final Long2IntOpenHashMap CELLS = new Long2IntOpenHashMap();
+    /** The chunk sections whose cells have been counted this tick. */
+    private final LongSet SECTIONS = new LongOpenHashSet();
+    /** The game time the current counts were built at. */
+    private long builtTime = Long.MIN_VALUE;
+    
+    private CrowdDensityMap( World world ) { WORLD = world; }
+    
+    /**
+     * @param entity The entity to count around.
+     * @return The approximate number of other entities within about 4 blocks of the entity. This counts all entities in the
+     * entity's cell and the 26 cells surrounding it.
+     */
+    int countNear( Entity entity ) {
+        final int cellX = MathHelper.floor( entity.getX() ) >> CELL_SHIFT;
+        final int cellY = MathHelper.floor( entity.getY() ) >> CELL_SHIFT;
+        final int cellZ = MathHelper.floor( entity.getZ() ) >> CELL_SHIFT;
+        
+        int count = 0;
+        for( int x = cellX - 1; x <= cellX + 1; x++ ) {
+            for( int y = cellY - 1; y <= cellY + 1; y++ ) {
+                for( int z = cellZ - 1; z <= cellZ + 1; z++ ) {
+                    count += getCount( x, y, z );
+                }
+            }
+        }
+        // Do not count the entity itself
+        return Math.max( 0, count - 1 );
+    }
+    
+    /** @return The number of entities in the cell, counting the cell's whole section first if needed. */
+    private int getCount( int cellX, int cellY, int cellZ ) {
+        final int shift = SECTION_SHIFT - CELL_SHIFT;
+        final long sectionKey = BlockPos.asLong( cellX >> shift, cellY >> shift, cellZ >> shift );
+        if( SECTIONS.add( sectionKey ) ) {
+            countSection( cellX >> shift, cellY >> shift, cellZ >> shift );
+        }
+        return CELLS.get( BlockPos.asLong( cellX, cellY, cellZ ) );
+    }
+    
+    /** Counts the entities in each cell of a chunk section. */
+    private void countSection( int sectionX, int sectionY, int sectionZ ) {
+        final int minX = sectionX << SECTION_SHIFT;
+        final int minY = sectionY << SECTION_SHIFT;
+        final int minZ = sectionZ << SECTION_SHIFT;
+        final int size = 1 << SECTION_SHIFT;
+        final AxisAlignedBB sectionBox = new AxisAlignedBB( minX, minY, minZ, minX + size, minY + size, minZ + size );
+        for( Entity entity : WORLD.getEntities( null, sectionBox ) ) {
+            final int x = MathHelper.floor( entity.getX() );
+            final int y = MathHelper.floor( entity.getY() );
+            final int z = MathHelper.floor( entity.getZ() );
+            // Entities are counted in the section their position is in, even if their bounding box reaches into this one
+            if( x >> SECTION_SHIFT == sectionX && y >> SECTION_SHIFT == sectionY && z >> SECTION_SHIFT == sectionZ ) {
+                CELLS.addTo( BlockPos.asLong( x >> CELL_SHIFT, y >> CELL_SHIFT, z >> CELL_SHIFT ), 1 );
+            }
+        }
+    }
+}
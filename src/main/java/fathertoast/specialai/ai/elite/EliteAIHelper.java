@@ -1,7 +1,9 @@
 package fathertoast.specialai.ai.elite;
 
 import fathertoast.specialai.ModCore;
+import fathertoast.specialai.ai.MobAIData;
 import fathertoast.specialai.config.Config;
+import fathertoast.specialai.util.NBTHelper;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.MobEntity;
 import net.minecraft.entity.ai.attributes.Attribute;
@@ -14,6 +16,7 @@ import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.util.Hand;
 import net.minecraft.util.text.ITextComponent;
 import net.minecraft.util.text.TranslationTextComponent;
+import net.minecraft.world.World;
 
 /**
  * This class contains several helper methods for managing elite AI.
@@ -28,31 +31,43 @@ public final class EliteAIHelper {
     /** The translation text component. */
     static ITextComponent getText( EliteAIType ai, String subKey ) { return new TranslationTextComponent( getLangKey( ai, subKey ) ); }
     
+    /** Called when a world unloads to discard any elite AI state kept for it. */
+    public static void onWorldUnload( World world ) {
+        ShamanAuras.unload( world );
+        CrowdDensityMap.unload( world );
+    }
+    
     /**
      * @param entity Applies a random elite AI to this mob.
-     * @param aiTag  The mob's save data.
+     * @param data   The mob's AI data.
      */
-    public static void saveEliteAI( MobEntity entity, CompoundNBT aiTag ) {
-        EliteAIType eliteAI = Config.ELITE_AI.GENERAL.eliteAIWeights.next( entity.getRandom() );
-        if( eliteAI != null && !eliteAI.isSaved( aiTag ) ) {
-            eliteAI.saveTo( aiTag );
+    public static void saveEliteAI( MobEntity entity, MobAIData data ) {
+        EliteAIType eliteAI = Config.ELITE_AI.GENERAL.eliteAIWeights.next( entity.getRandom(),
+                Config.ELITE_AI.GENERAL.eliteAIWeightOverrides.get().getValues( entity ) );
+        if( eliteAI != null ) {
+            data.addEliteAI( eliteAI );
         }
     }
     
     /**
-     * @param entity Mob to apply loaded elite AI to.
-     * @param aiTag  The mob's save data.
-     * @param init   When true, the loaded AIs will apply their attribute modifiers and equipment.
+     * @param entity  Mob to apply loaded elite AI to.
+     * @param eliteAI The bitmask of elite AI types the mob has.
+     * @param init    When true, the loaded AIs will apply their attribute modifiers and equipment.
      */
-    public static void loadEliteAI( MobEntity entity, CompoundNBT aiTag, boolean init ) {
+    public static void loadEliteAI( MobEntity entity, int eliteAI, boolean init ) {
+        if( eliteAI == 0 ) return;
         float healthDiff = init ? entity.getMaxHealth() - entity.getHealth() : Float.NaN;
         
+        // The mob's elite AI save data; only created if one of its AI types saves extra data
+        final CompoundNBT aiTag = (eliteAI & EliteAIType.EXTRA_DATA_BITS) != 0 ?
+                NBTHelper.getOrCreateTag( NBTHelper.getModTag( entity ), MobAIData.TAG_ELITE_AI ) : new CompoundNBT();
+        
         // Load each AI goal and initialize, as needed
-        for( EliteAIType ai : EliteAIType.values() ) {
-            if( ai.isSaved( aiTag ) ) {
-                if( init ) { initialize( ai, entity, aiTag ); }
-                ai.loadTo( entity, aiTag );
-            }
+        for( int bits = eliteAI; bits != 0; bits &= bits - 1 ) {
+            final EliteAIType ai = EliteAIType.byId( Integer.numberOfTrailingZeros( bits ) );
+            if( ai == null ) continue;
+            if( init ) { initialize( ai, entity, aiTag ); }
+            ai.loadTo( entity, aiTag );
         }
         // Update health based on attribute changes during initialization
         if( init ) entity.setHealth( entity.getMaxHealth() - healthDiff );
@@ -1,5 +1,6 @@
 package fathertoast.specialai.ai.elite;
 
+import fathertoast.specialai.ai.GoalIndex;
 import fathertoast.specialai.config.Config;
 import fathertoast.specialai.config.EliteAIConfig;
 import fathertoast.specialai.config.util.WeightedList;
@@ -15,6 +16,7 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
 import net.minecraft.nbt.CompoundNBT;
 
+import javax.annotation.Nullable;
 import java.util.List;
 
 /**
@@ -22,7 +24,7 @@ import java.util.List;
  */
 public enum EliteAIType implements WeightedList.Value {
     
-    LEAP( "Leap", 150 ) {
+    LEAP( 0, "Leap", 150 ) {
         /** @return Returns this AI type's config category. */
         @Override
         public EliteAIConfig.EliteAICategory getConfigCategory() { return Config.ELITE_AI.LEAP; }
@@ -39,11 +41,11 @@ public enum EliteAIType implements WeightedList.Value {
         /** Adds the AI goal corresponding to this type to the given entity, with any additional values needed loaded from the entity tag. */
         @Override
         public void loadTo( MobEntity entity, CompoundNBT aiTag ) {
-            entity.goalSelector.addGoal( 0, new LeapEliteGoal( entity ) );
+            GoalIndex.goals( entity ).add( 0, new LeapEliteGoal( entity ) );
         }
     },
     
-    JUMP( "Jump", 100 ) {
+    JUMP( 1, "Jump", 100 ) {
         /** @return Returns this AI type's config category. */
         @Override
         public EliteAIConfig.EliteAICategory getConfigCategory() { return Config.ELITE_AI.JUMP; }
@@ -73,11 +75,11 @@ public enum EliteAIType implements WeightedList.Value {
         /** Adds the AI goal corresponding to this type to the given entity, with any additional values needed loaded from the entity tag. */
         @Override
         public void loadTo( MobEntity entity, CompoundNBT aiTag ) {
-            entity.goalSelector.addGoal( 0, new JumpEliteGoal( entity ) );
+            GoalIndex.goals( entity ).add( 0, new JumpEliteGoal( entity ) );
         }
     },
     
-    SPRINT( "Sprint", 150 ) {
+    SPRINT( 2, "Sprint", 150 ) {
         /** @return Returns this AI type's config category. */
         @Override
         public EliteAIConfig.EliteAICategory getConfigCategory() { return Config.ELITE_AI.SPRINT; }
@@ -106,11 +108,11 @@ public enum EliteAIType implements WeightedList.Value {
         /** Adds the AI goal corresponding to this type to the given entity, with any additional values needed loaded from the entity tag. */
         @Override
         public void loadTo( MobEntity entity, CompoundNBT aiTag ) {
-            entity.goalSelector.addGoal( 0, new SprintEliteGoal( entity ) );
+            GoalIndex.goals( entity ).add( 0, new SprintEliteGoal( entity ) );
         }
     },
     
-    BARRAGE( "Barrage", 50 ) {
+    BARRAGE( 3, "Barrage", 50 ) {
         /** @return Returns this AI type's config category. */
         @Override
         public EliteAIConfig.EliteAICategory getConfigCategory() { return Config.ELITE_AI.BARRAGE; }
@@ -135,11 +137,11 @@ public enum EliteAIType implements WeightedList.Value {
         /** Adds the AI goal corresponding to this type to the given entity, with any additional values needed loaded from the entity tag. */
         @Override
         public void loadTo( MobEntity entity, CompoundNBT aiTag ) {
-            entity.goalSelector.addGoal( 0, new BarrageEliteGoal( entity ) );
+            GoalIndex.goals( entity ).add( 0, new BarrageEliteGoal( entity ) );
         }
     },
     
-    CHARGE( "Charge", 100 ) {
+    CHARGE( 4, "Charge", 100 ) {
         /** @return Returns this AI type's config category. */
         @Override
         public EliteAIConfig.EliteAICategory getConfigCategory() { return Config.ELITE_AI.CHARGE; }
@@ -172,11 +174,11 @@ public enum EliteAIType implements WeightedList.Value {
         /** Adds the AI goal corresponding to this type to the given entity, with any additional values needed loaded from the entity tag. */
         @Override
         public void loadTo( MobEntity entity, CompoundNBT aiTag ) {
-            entity.goalSelector.addGoal( 0, new ChargeEliteGoal( entity ) );
+            GoalIndex.goals( entity ).add( 0, new ChargeEliteGoal( entity ) );
         }
     },
     
-    THIEF( "Thief", 50 ) {
+    THIEF( 5, "Thief", 50 ) {
         /** @return Returns this AI type's config category. */
         @Override
         public EliteAIConfig.EliteAICategory getConfigCategory() { return Config.ELITE_AI.THIEF; }
@@ -212,11 +214,11 @@ public enum EliteAIType implements WeightedList.Value {
         /** Adds the AI goal corresponding to this type to the given entity, with any additional values needed loaded from the entity tag. */
         @Override
         public void loadTo( MobEntity entity, CompoundNBT aiTag ) {
-            entity.goalSelector.addGoal( 0, new ThiefEliteGoal( entity ) );
+            GoalIndex.goals( entity ).add( 0, new ThiefEliteGoal( entity ) );
         }
     },
     
-    SHAMAN( "Shaman", 50 ) {
+    SHAMAN( 6, "Shaman", 50 ) {
         /** @return Returns this AI type's config category. */
         @Override
         public EliteAIConfig.EliteAICategory getConfigCategory() { return Config.ELITE_AI.SHAMAN; }
@@ -246,11 +248,11 @@ public enum EliteAIType implements WeightedList.Value {
         /** Adds the AI goal corresponding to this type to the given entity, with any additional values needed loaded from the entity tag. */
         @Override
         public void loadTo( MobEntity entity, CompoundNBT aiTag ) {
-            entity.goalSelector.addGoal( 0, new ShamanEliteGoal( entity ) );
+            GoalIndex.goals( entity ).add( 0, new ShamanEliteGoal( entity ) );
         }
     },
     
-    SPAWNER( "Spawner", 50 ) {
+    SPAWNER( 7, "Spawner", 50 ) {
         /** @return Returns this AI type's config category. */
         @Override
         public EliteAIConfig.EliteAICategory getConfigCategory() { return Config.ELITE_AI.SPAWNER; }
@@ -277,11 +279,15 @@ public enum EliteAIType implements WeightedList.Value {
         /** Adds the AI goal corresponding to this type to the given entity, with any additional values needed loaded from the entity tag. */
         @Override
         public void loadTo( MobEntity entity, CompoundNBT aiTag ) {
-            entity.goalSelector.addGoal( 0, new SpawnerEliteGoal( entity, aiTag ) );
+            GoalIndex.goals( entity ).add( 0, new SpawnerEliteGoal( entity, aiTag ) );
         }
+        
+        /** @return True if this AI type saves additional data to the entity tag. */
+        @Override
+        public boolean hasExtraData() { return true; }
     },
     
-    THROW_ALLY( "Throw Ally", 100 ) {
+    THROW_ALLY( 8, "Throw Ally", 100 ) {
         /** @return Returns this AI type's config category. */
         @Override
         public EliteAIConfig.EliteAICategory getConfigCategory() { return Config.ELITE_AI.THROW_ALLY; }
@@ -298,11 +304,11 @@ public enum EliteAIType implements WeightedList.Value {
         /** Adds the AI goal corresponding to this type to the given entity, with any additional values needed loaded from the entity tag. */
         @Override
         public void loadTo( MobEntity entity, CompoundNBT aiTag ) {
-            entity.goalSelector.addGoal( 0, new ThrowAllyEliteGoal( entity ) );
+            GoalIndex.goals( entity ).add( 0, new ThrowAllyEliteGoal( entity ) );
         }
     },
     
-    THROW_ENEMY( "Throw Enemy", 50 ) {
+    THROW_ENEMY( 9, "Throw Enemy", 50 ) {
         /** @return Returns this AI type's config category. */
         @Override
         public EliteAIConfig.EliteAICategory getConfigCategory() { return Config.ELITE_AI.THROW_ENEMY; }
@@ -331,13 +337,36 @@ public enum EliteAIType implements WeightedList.Value {
         /** Adds the AI goal corresponding to this type to the given entity, with any additional values needed loaded from the entity tag. */
         @Override
         public void loadTo( MobEntity entity, CompoundNBT aiTag ) {
-            entity.goalSelector.addGoal( 0, new ThrowEnemyEliteGoal( entity ) );
+            GoalIndex.goals( entity ).add( 0, new ThrowEnemyEliteGoal( entity ) );
         }
     };
     
     /** The suffix to append to ai type keys to generate the extra data tag name. */
     private static final String TAG_SUFFIX = "_data";
     
+    /** The number of unique ids available for elite AI types. Ids are used as bit numbers in an int bitmask. */
+    private static final int MAX_ID = 32;
+    /** Each elite AI type, by its unique id. */
+    private static final EliteAIType[] BY_ID = new EliteAIType[MAX_ID];
+    /** The bits of all elite AI types that save additional data to the entity tag. */
+    public static final int EXTRA_DATA_BITS;
+    
+    static {
+        int extraDataBits = 0;
+        for( EliteAIType ai : values() ) {
+            if( BY_ID[ai.ID] != null ) throw new IllegalStateException( "Duplicate elite AI id " + ai.ID + ": " + BY_ID[ai.ID] + ", " + ai );
+            BY_ID[ai.ID] = ai;
+            if( ai.hasExtraData() ) extraDataBits |= ai.getBit();
+        }
+        EXTRA_DATA_BITS = extraDataBits;
+    }
+    
+    /** @return The elite AI type with the given id, or null if there is none. */
+    @Nullable
+    public static EliteAIType byId( int id ) { return id >= 0 && id < MAX_ID ? BY_ID[id] : null; }
+    
+    /** The unique id for this elite AI type. This is saved as the type's bit in a mob's elite AI bitmask, so it must never change. */
+    private final int ID;
     /** The display name for this elite AI type. */
     private final String NAME;
     /** The unique key for this elite AI type. */
@@ -345,11 +374,12 @@ public enum EliteAIType implements WeightedList.Value {
     /** The default weight for this elite AI type in the config. */
     private final int DEFAULT_WEIGHT;
     
-    EliteAIType( String name, int defaultWeight ) {
-        this( name, name.toLowerCase().replace( " ", "_" ), defaultWeight );
+    EliteAIType( int id, String name, int defaultWeight ) {
+        this( id, name, name.toLowerCase().replace( " ", "_" ), defaultWeight );
     }
     
-    EliteAIType( String name, String key, int defaultWeight ) {
+    EliteAIType( int id, String name, String key, int defaultWeight ) {
+        ID = id;
         NAME = name;
         KEY = key;
         DEFAULT_WEIGHT = defaultWeight;
@@ -372,14 +402,11 @@ public enum EliteAIType implements WeightedList.Value {
     @Override
     public final int getDefaultWeight() { return DEFAULT_WEIGHT; }
     
-    /** Saves this AI to the entity tag. */
-    public final void saveTo( CompoundNBT aiTag ) { aiTag.putBoolean( KEY, true ); }
+    /** @return The bit for this AI type in a mob's elite AI bitmask. */
+    public final int getBit() { return 1 << ID; }
     
-    /** @return Returns true if this AI type is saved to the tag. */
-    public final boolean isSaved( CompoundNBT aiTag ) {
-        if( aiTag.contains( KEY, NBTHelper.ID_NUMERICAL ) ) return aiTag.getBoolean( KEY );
-        return false;
-    }
+    /** @return True if this AI type saves additional data to the entity tag. Only these types need the tag to exist. */
+    public boolean hasExtraData() { return false; }
     
     /** @return True if the nbt compound used to store any additional data used by the AI exists. */
     public final boolean hasTag( CompoundNBT aiTag ) { return aiTag.contains( KEY + TAG_SUFFIX, NBTHelper.ID_COMPOUND ); }
@@ -0,0 +1,164 @@
+package fathertoast.specialai.ai.elite;
+
+import fathertoast.specialai.ai.TargetIndex;
+import fathertoast.specialai.ai.TickScheduler;
+import fathertoast.specialai.config.Config;
+import fathertoast.specialai.util.BlockHelper;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.MobEntity;
+import net.minecraft.potion.Effect;
+import net.minecraft.potion.EffectInstance;
+import net.minecraft.potion.Effects;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+
+import java.util.*;
+
+/**
+ * Resolves the aura pulses of all shamans in a world together, once at the end of each tick that has any.
+ * <p>
+ * Overlapping auras are merged: pulsing shamans are placed on a uniform grid with cells the size of the aura range, so
+ * each ally only checks the shamans in its own and neighboring cells, and is pulsed at most once per pulse interval no
+ * matter how many shamans it is near. Only used on the server thread.
+ */
+final class ShamanAuras {
+    /** The number of ticks between each of a shaman's aura pulses. */
+    static final int PULSE_INTERVAL = 40;
+    /** The duration of the effects applied by an aura pulse. */
+    private static final int EFFECT_DURATION = 60;
+    
+    /** The pulses submitted this tick in each world, waiting to be resolved. */
+    private static final Map<World, List<MobEntity>> PENDING = new HashMap<>();
+    /** The game time each ally was last pulsed at. */
+    private static final Map<MobEntity, Long> LAST_PULSED = new WeakHashMap<>();
+    
+    /** Submits an aura pulse from a shaman, to be resolved at the end of the tick. The shaman must have a target. */
+    static void submit( MobEntity shaman ) {
+        List<MobEntity> pending = PENDING.get( shaman.level );
+        if( pending == null ) {
+            final World world = shaman.level;
+            pending = new ArrayList<>();
+            PENDING.put( world, pending );
+            TickScheduler.of( world ).schedule( null, 0, () -> resolve( world ) );
+        }
+        pending.add( shaman );
+    }
+    
+    /** Called when a world unloads to discard any pulses still waiting, since their scheduled resolve is dropped with it. */
+    static void unload( World world ) { PENDING.remove( world ); }
+    
+    /** Resolves all pulses submitted in the world since it was last resolved. */
+    private static void resolve( World world ) {
+        final List<MobEntity> pending = PENDING.remove( world );
+        if( pending == null ) return;
+        
+        // Group the pulsing shamans by their target, since their allies are the mobs with the same target
+        final Map<LivingEntity, List<MobEntity>> byTarget = new HashMap<>();
+        for( MobEntity shaman : pending ) {
+            final LivingEntity target = shaman.getTarget();
+            if( shaman.isAlive() && target != null ) {
+                byTarget.computeIfAbsent( target, ( key ) -> new ArrayList<>() ).add( shaman );
+            }
+        }
+        
+        final double rangeSqr = Config.ELITE_AI.SHAMAN.auraRangeSqr.get();
+        final double cellSize = Math.max( 1.0, Config.ELITE_AI.SHAMAN.auraRangeSqr.getSqrRoot() );
+        final long time = world.getGameTime();
+        for( Map.Entry<LivingEntity, List<MobEntity>> entry : byTarget.entrySet() ) {
+            // Place the shamans on the grid
+            final Map<Long, List<MobEntity>> grid = new HashMap<>();
+            for( MobEntity shaman : entry.getValue() ) {
+                grid.computeIfAbsent( cellKey( shaman, cellSize, 0, 0, 0 ), ( key ) -> new ArrayList<>( 2 ) ).add( shaman );
+            }
+            
+            // Pulse each ally in range of any shaman, unless it was already pulsed this interval
+            final List<MobEntity> allies = new ArrayList<>();
+            for( MobEntity ally : TargetIndex.attackersOf( entry.getKey() ) ) {
+                if( ally.isAlive() && !ally.isSpectator() && ally.getTarget() == entry.getKey() &&
+                        !wasPulsedRecently( ally, time ) && isInAura( ally, grid, cellSize, rangeSqr ) ) {
+                    allies.add( ally );
+                }
+            }
+            for( MobEntity ally : allies ) {
+                LAST_PULSED.put( ally, time );
+                auraPulse( ally );
+            }
+        }
+    }
+    
+    /** @return True if the ally has been pulsed within the last pulse interval. */
+    private static boolean wasPulsedRecently( MobEntity ally, long time ) {
+        final Long lastPulsed = LAST_PULSED.get( ally );
+        return lastPulsed != null && time - lastPulsed < PULSE_INTERVAL;
+    }
+    
+    /** @return True if the ally is within the aura range of a shaman other than itself. */
+    private static boolean isInAura( MobEntity ally, Map<Long, List<MobEntity>> grid, double cellSize, double rangeSqr ) {
+        for( int x = -1; x <= 1; x++ ) {
+            for( int y = -1; y <= 1; y++ ) {
+                for( int z = -1; z <= 1; z++ ) {
+                    final List<MobEntity> shamans = grid.get( cellKey( ally, cellSize, x, y, z ) );
+                    if( shamans == null ) continue;
+                    for( MobEntity shaman : shamans ) {
+                        if( shaman != ally && shaman.distanceToSqr( ally ) <= rangeSqr ) return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+    
+    /** @return The key for the grid cell containing the entity, offset by the given number of cells. */
+    private static long cellKey( MobEntity entity, double cellSize, int offsetX, int offsetY, int offsetZ ) {
+        return BlockPos.asLong(
+                MathHelper.floor( entity.getX() / cellSize ) + offsetX,
+                MathHelper.floor( entity.getY() / cellSize ) + offsetY,
+                MathHelper.floor( entity.getZ() / cellSize ) + offsetZ );
+    }
+    
+    /** Applies all effects from one aura pulse to the target mob. */
+    private static void auraPulse( MobEntity ally ) {
+        // Heal and extinguish burning
+        if( Config.ELITE_AI.SHAMAN.healAmount.get() > 0.0 ) {
+            ally.heal( (float) Config.ELITE_AI.SHAMAN.healAmount.get() );
+        }
+        if( Config.ELITE_AI.SHAMAN.extinguish.get() ) {
+            ally.clearFire();
+        }
+        
+        // Apply potion effects
+        if( Config.ELITE_AI.SHAMAN.strengthPotency.get() >= 0 ) {
+            addEffect( ally, Effects.DAMAGE_BOOST, Config.ELITE_AI.SHAMAN.strengthPotency.get() );
+        }
+        if( Config.ELITE_AI.SHAMAN.resistancePotency.get() >= 0 ) {
+            addEffect( ally, Effects.DAMAGE_RESISTANCE, Config.ELITE_AI.SHAMAN.resistancePotency.get() );
+        }
+        if( Config.ELITE_AI.SHAMAN.speedPotency.get() >= 0 ) {
+            addEffect( ally, Effects.MOVEMENT_SPEED, Config.ELITE_AI.SHAMAN.speedPotency.get() );
+        }
+        if( Config.ELITE_AI.SHAMAN.slowFalling.get() ) {
+            addEffect( ally, Effects.SLOW_FALLING, 0 );
+        }
+        if( Config.ELITE_AI.SHAMAN.fireResistance.get() ) {
+            addEffect( ally, Effects.FIRE_RESISTANCE, 0 );
+        }
+        if( Config.ELITE_AI.SHAMAN.waterBreathing.get() ) {
+            addEffect( ally, Effects.WATER_BREATHING, 0 );
+        }
+        
+        // Play green particle effects
+        BlockHelper.LevelEvent.BONEMEAL_PARTICLES.play( ally );
+    }
+    
+    /** Applies an aura effect to the mob, unless it already has an equal or stronger one that lasts past the next pulse. */
+    private static void addEffect( MobEntity ally, Effect effect, int amplifier ) {
+        final EffectInstance current = ally.getEffect( effect );
+        if( current == null || current.getAmplifier() < amplifier || current.getDuration() <= PULSE_INTERVAL ) {
+            ally.addEffect( new EffectInstance( effect, EFFECT_DURATION, amplifier ) );
+        }
+    }
+    
+    // This is a static-only helper class.
+    private ShamanAuras() {}
+}
@@ -1,26 +1,18 @@
 package fathertoast.specialai.ai.elite;
 
+import fathertoast.specialai.ai.TargetIndex;
 import fathertoast.specialai.config.Config;
-import fathertoast.specialai.util.BlockHelper;
-import net.minecraft.entity.Entity;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.MobEntity;
-import net.minecraft.potion.EffectInstance;
-import net.minecraft.potion.Effects;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
-import java.util.function.Predicate;
 
 /**
  * This AI causes an entity to heal and buff its nearby allies and prefer to follow allies over attacking.
  */
 public class ShamanEliteGoal extends AbstractPathingEliteGoal {
-    /** Selects mobs that are alive. */
-    private static final Predicate<Entity> MOB_SELECTOR = entity ->
-            entity instanceof MobEntity && entity.isAlive() && !entity.isSpectator();
-    
     /** The entity this mob is following. */
     private MobEntity followTarget;
     /** Ticks until next aura pulse. */
@@ -77,14 +69,9 @@ public class ShamanEliteGoal extends AbstractPathingEliteGoal {
         
         // Perform aura pulse
         pulseTime--;
-        if( pulseTime <= 0 ) {
-            pulseTime = 40;
-            List<Entity> list = getHotMILFsInArea();
-            for( Entity entity : list ) {
-                if( isInRangeAlly( target, entity ) ) {
-                    auraPulse( (MobEntity) entity );
-                }
-            }
+        if( pulseTime <= 0 && target != null ) {
+            pulseTime = ShamanAuras.PULSE_INTERVAL;
+            ShamanAuras.submit( mob );
         }
     }
     
@@ -94,66 +81,28 @@ public class ShamanEliteGoal extends AbstractPathingEliteGoal {
         followTarget = null;
     }
     
-    /** Applies all effects from one aura pulse to the target mob. */
-    private static void auraPulse( MobEntity ally ) {
-        // Heal and extinguish burning
-        if( Config.ELITE_AI.SHAMAN.healAmount.get() > 0.0 ) {
-            ally.heal( (float) Config.ELITE_AI.SHAMAN.healAmount.get() );
-        }
-        if( Config.ELITE_AI.SHAMAN.extinguish.get() ) {
-            ally.clearFire();
-        }
-        
-        // Apply potion effects
-        if( Config.ELITE_AI.SHAMAN.strengthPotency.get() >= 0 ) {
-            ally.addEffect( new EffectInstance( Effects.DAMAGE_BOOST, 60, Config.ELITE_AI.SHAMAN.strengthPotency.get() ) );
-        }
-        if( Config.ELITE_AI.SHAMAN.resistancePotency.get() >= 0 ) {
-            ally.addEffect( new EffectInstance( Effects.DAMAGE_RESISTANCE, 60, Config.ELITE_AI.SHAMAN.resistancePotency.get() ) );
-        }
-        if( Config.ELITE_AI.SHAMAN.speedPotency.get() >= 0 ) {
-            ally.addEffect( new EffectInstance( Effects.MOVEMENT_SPEED, 60, Config.ELITE_AI.SHAMAN.speedPotency.get() ) );
-        }
-        if( Config.ELITE_AI.SHAMAN.slowFalling.get() ) {
-            ally.addEffect( new EffectInstance( Effects.SLOW_FALLING, 60, 0 ) );
-        }
-        if( Config.ELITE_AI.SHAMAN.fireResistance.get() ) {
-            ally.addEffect( new EffectInstance( Effects.FIRE_RESISTANCE, 60, 0 ) );
-        }
-        if( Config.ELITE_AI.SHAMAN.waterBreathing.get() ) {
-            ally.addEffect( new EffectInstance( Effects.WATER_BREATHING, 60, 0 ) );
-        }
-        
-        // Play green particle effects
-        BlockHelper.LevelEvent.BONEMEAL_PARTICLES.play( ally );
-    }
-    
     /** Searches for a nearby ally (targeting the same entity) to follow. Returns true if one is found. */
     private boolean findFollowTarget() {
         final LivingEntity target = mob.getTarget();
         if( target != null ) {
-            List<Entity> list = getHotMILFsInArea();
-            for( Entity entity : list ) {
-                if( isInRangeAlly( target, entity ) ) {
-                    followTarget = (MobEntity) entity;
-                    return true;
-                }
+            final List<MobEntity> allies = getInRangeAllies( target );
+            if( !allies.isEmpty() ) {
+                followTarget = allies.get( mob.getRandom().nextInt( allies.size() ) );
+                return true;
             }
         }
         return false;
     }
     
-    /** @return Returns all living mobs that may be in range and could potentially be allies. */
-    private List<Entity> getHotMILFsInArea() {
-        List<Entity> list = mob.level.getEntities( mob,
-                mob.getBoundingBox().inflate( Config.ELITE_AI.SHAMAN.auraRangeSqr.getSqrRoot() ), MOB_SELECTOR );
-        Collections.shuffle( list );
-        return list;
-    }
-    
-    /** @return Returns true if the entity is in range and an ally (targeting the same entity). */
-    private boolean isInRangeAlly( LivingEntity target, Entity entity ) {
-        return entity instanceof MobEntity && mob.distanceToSqr( entity ) <= Config.ELITE_AI.SHAMAN.auraRangeSqr.get() &&
-                target == ((MobEntity) entity).getTarget();
+    /** @return Returns all living mobs in range that are allies (targeting the same entity). */
+    private List<MobEntity> getInRangeAllies( LivingEntity target ) {
+        final List<MobEntity> allies = new ArrayList<>();
+        for( MobEntity ally : TargetIndex.attackersOf( target ) ) {
+            if( ally != mob && ally.isAlive() && !ally.isSpectator() && ally.getTarget() == target &&
+                    mob.distanceToSqr( ally ) <= Config.ELITE_AI.SHAMAN.auraRangeSqr.get() ) {
+                allies.add( ally );
+            }
+        }
+        return allies;
     }
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package fathertoast.specialai.ai.elite;
 
 import com.google.common.collect.Lists;
-import fathertoast.specialai.ai.AIManager;
+import fathertoast.specialai.ModCore;
+import fathertoast.specialai.ai.MobAIData;
+import fathertoast.specialai.ai.PopulationTracker;
+import fathertoast.specialai.ai.SightCache;
+import fathertoast.specialai.ai.TickScheduler;
 import fathertoast.specialai.config.Config;
 import fathertoast.specialai.util.BlockHelper;
 import fathertoast.specialai.util.NBTHelper;
@@ -21,8 +25,9 @@ import net.minecraftforge.event.ForgeEventFactory;
 
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Random;
 
 /**
@@ -30,8 +35,9 @@ import java.util.Random;
  * The spawner logic is saved to and loaded from nbt, identical to a vanilla spawner.
  */
 public class SpawnerEliteGoal extends AbstractEliteGoal {
-    /** The mob spawner logic for this AI. */
-    private final AbstractSpawner spawnerLogic;
+    /** The mob spawner logic for this AI, or null if it is not currently needed. Built when a target is first seen. */
+    @Nullable
+    private SpawnerLogic spawnerLogic;
     /** The nbt compound used to store any additional data used by the AI. */
     private final CompoundNBT extraData;
     
@@ -39,23 +45,39 @@ public class SpawnerEliteGoal extends AbstractEliteGoal {
     private int canSeeTicks;
     /** Time until the next save update. */
     private int saveTicks;
+    /** The game time this AI was last active at. */
+    private long lastActiveTime;
     
     SpawnerEliteGoal( MobEntity entity, CompoundNBT aiTag ) {
         super( entity );
-        spawnerLogic = new SpawnerLogic( this );
-        
-        final boolean initialized = EliteAIType.SPAWNER.hasTag( aiTag );
         extraData = EliteAIType.SPAWNER.getTag( aiTag );
-        
-        // Load from tag if initialized, otherwise initialize by saving to tag
-        if( initialized ) { spawnerLogic.load( extraData ); }
-        else { save(); }
     }
     
     /** @return Returns true if this AI can be activated. */
     @Override
     public boolean canUse() {
-        return checkSight( false );
+        if( checkSight( false ) ) {
+            getSpawnerLogic();
+            return true;
+        }
+        // Drop the spawner logic if it has gone unused for long enough; it is rebuilt from the saved data when needed
+        if( spawnerLogic != null && spawnerLogic.isIdle() &&
+                mob.level.getGameTime() - lastActiveTime > Config.ELITE_AI.GENERAL.idleReleaseTime.get() ) {
+            spawnerLogic.saveChanges( extraData );
+            spawnerLogic = null;
+        }
+        return false;
+    }
+    
+    /** @return The spawner logic for this AI, building it first if needed. */
+    private SpawnerLogic getSpawnerLogic() {
+        if( spawnerLogic == null ) {
+            spawnerLogic = new SpawnerLogic( this );
+            // Load from tag if initialized, otherwise initialize by saving to tag
+            if( !extraData.isEmpty() ) { spawnerLogic.load( extraData ); }
+            else { save(); }
+        }
+        return spawnerLogic;
     }
     
     /** @return Called each update while active and returns true if this AI can remain active. */
@@ -76,7 +98,7 @@ public class SpawnerEliteGoal extends AbstractEliteGoal {
         if( target != null ) {
             if( canSeeTicks-- > 0 ) return fallback;
             canSeeTicks = 4 + mob.getRandom().nextInt( 7 );
-            return mob.canSee( target );
+            return SightCache.canSee( mob, target );
         }
         return false;
     }
@@ -84,19 +106,21 @@ public class SpawnerEliteGoal extends AbstractEliteGoal {
     /** Called each tick while this AI is active. */
     @Override
     public void tick() {
-        spawnerLogic.tick();
+        lastActiveTime = mob.level.getGameTime();
+        getSpawnerLogic().tick();
         if( saveTicks-- <= 0 ) { save(); }
     }
     
     /** Called when this AI is deactivated. */
     @Override
     public void stop() {
+        lastActiveTime = mob.level.getGameTime();
         save();
     }
     
-    /** Saves the current state of the spawner logic and resets the save timer. */
+    /** Saves any changes to the state of the spawner logic and resets the save timer. */
     private void save() {
-        spawnerLogic.save( extraData );
+        getSpawnerLogic().saveChanges( extraData );
         saveTicks = 10 + mob.getRandom().nextInt( 20 );
     }
     
@@ -107,6 +131,23 @@ public class SpawnerEliteGoal extends AbstractEliteGoal {
     @MethodsReturnNonnullByDefault
     @ParametersAreNonnullByDefault
     public static final class SpawnerLogic extends AbstractSpawner {
+        /** The number of spawn attempts all spawner elites may still make this tick. */
+        private static int spawnBudget;
+        /** The server tick the spawn budget was last refilled on. */
+        private static int spawnBudgetTick = -1;
+        
+        /** @return True if a spawn attempt may be made this tick, after taking it from the global spawn budget. */
+        private static boolean takeSpawnBudget( ServerWorld world ) {
+            final int tick = world.getServer().getTickCount();
+            if( spawnBudgetTick != tick ) {
+                spawnBudgetTick = tick;
+                spawnBudget = Config.GENERAL.PERFORMANCE.spawnTickBudget.get();
+            }
+            if( spawnBudget <= 0 ) return false;
+            spawnBudget--;
+            return true;
+        }
+        
         /** The AI goal using this logic. */
         private final SpawnerEliteGoal aiGoal;
         /** The entity using this logic. */
@@ -131,6 +172,16 @@ public class SpawnerEliteGoal extends AbstractEliteGoal {
         private int spawnDelay = Config.ELITE_AI.SPAWNER.initialCooldown.get();
         /** Data of the mob to spawn for the next wave. */
         private WeightedSpawnerEntity nextSpawnData = new WeightedSpawnerEntity();
+        /** The resolved form of each spawn data used so far, so each is only parsed and validated once. */
+        private final Map<WeightedSpawnerEntity, SpawnPrototype> prototypes = new IdentityHashMap<>();
+        /** True if anything other than the spawn delay may have changed since this was last saved. */
+        private boolean dirty = true;
+        /** The spawn delay as of the last save. */
+        private int savedDelay;
+        
+        /** The spawn wave most recently started, which may still be spawning. */
+        @Nullable
+        private SpawnWave currentWave;
         
         SpawnerLogic( SpawnerEliteGoal goal ) {
             aiGoal = goal;
@@ -138,6 +189,9 @@ public class SpawnerEliteGoal extends AbstractEliteGoal {
             setEntityId( mob.getType() );
         }
         
+        /** @return True if this spawner has no spawn wave in progress. */
+        boolean isIdle() { return currentWave == null || currentWave.done; }
+        
         /** Sends an event to the client. */
         @Override
         public void broadcastEvent( int eventId ) {
@@ -163,11 +217,18 @@ public class SpawnerEliteGoal extends AbstractEliteGoal {
             // Carry over deprecated registry from base spawner logic
             //noinspection deprecation
             nextSpawnData.getTag().putString( TAG_ENTITY_ID, Registry.ENTITY_TYPE.getKey( entityType ).toString() );
+            prototypes.remove( nextSpawnData );
+            dirty = true;
         }
         
         /** Sets the data of the mob to spawn for the next wave. */
         @Override
-        public void setNextSpawnData( WeightedSpawnerEntity spawnData ) { nextSpawnData = spawnData; }
+        public void setNextSpawnData( WeightedSpawnerEntity spawnData ) {
+            if( nextSpawnData != spawnData ) {
+                nextSpawnData = spawnData;
+                dirty = true;
+            }
+        }
         
         /** Called each tick while this spawner is active. */
         @Override
@@ -188,72 +249,96 @@ public class SpawnerEliteGoal extends AbstractEliteGoal {
             }
         }
         
-        /** Spawns a wave of mobs from the spawner. */
+        /**
+         * Starts a wave of mobs from the spawner. The wave's spawn attempts are made at the end of this and following ticks,
+         * as the global spawn budget allows.
+         */
         private void spawnWave() {
+            // Let any wave still in progress finish instead
+            if( currentWave != null && !currentWave.done ) return;
+            
+            // Load entity type
+            final SpawnPrototype prototype = prototypes.computeIfAbsent( nextSpawnData, SpawnPrototype::new );
+            if( prototype.TYPE == null ) return;
+            
+            currentWave = new SpawnWave( prototype );
+            TickScheduler.of( mob.level ).repeat( mob, 0, 1, currentWave::step );
+        }
+        
+        /**
+         * Makes a single spawn attempt for a wave.
+         *
+         * @return False if the wave should stop making attempts.
+         */
+        private boolean trySpawn( SpawnPrototype prototype ) {
             final AxisAlignedBB nearbyCheckBB = new AxisAlignedBB( mob.blockPosition() ).inflate( spawnRange );
             final BlockPos headPos = new BlockPos( mob.getX(), mob.getEyeY(), mob.getZ() );
             final ServerWorld world = (ServerWorld) getLevel();
             final Random random = mob.getRandom();
             
-            for( int i = 0; i < spawnCount; i++ ) {
-                // Load entity type
-                final CompoundNBT spawnData = nextSpawnData.getTag();
-                final Optional<EntityType<?>> entityType = EntityType.by( spawnData );
-                if( !entityType.isPresent() ) break;
-                
-                // Pick a random spawn position; ignore any dumb nbt position (unlike base spawn logic)
-                final Vector3d spawnPos = mob.position().add(
-                        (random.nextDouble() - random.nextDouble()) * (double) spawnRange,
-                        random.nextInt( 3 ) - 1,
-                        (random.nextDouble() - random.nextDouble()) * (double) spawnRange
-                );
-                
-                // Test if the spawn position is valid
-                if( !world.noCollision( entityType.get().getAABB( spawnPos.x, spawnPos.y, spawnPos.z ) ) ) continue;
-                
-                // Create the entity to spawn
-                final Entity newEntity = EntityType.loadEntityRecursive( spawnData, world, ( loadEntity ) -> {
-                    loadEntity.moveTo( spawnPos.x, spawnPos.y, spawnPos.z, loadEntity.yRot, loadEntity.xRot );
-                    return loadEntity;
-                } );
-                if( newEntity == null ) break;
+            // Enforce max nearby entities
+            if( isAtMaxNearby( world, prototype.getEntityClass( world ), nearbyCheckBB ) ) return false;
+            
+            // Pick a random spawn position; ignore any dumb nbt position (unlike base spawn logic)
+            final Vector3d spawnPos = mob.position().add(
+                    (random.nextDouble() - random.nextDouble()) * (double) spawnRange,
+                    random.nextInt( 3 ) - 1,
+                    (random.nextDouble() - random.nextDouble()) * (double) spawnRange
+            );
+            
+            // Test if the spawn position is valid
+            if( !world.noCollision( prototype.getBoundingBox( spawnPos ) ) ) return true;
+            
+            // Create the entity to spawn
+            final Entity newEntity = EntityType.loadEntityRecursive( prototype.TAG, world, ( loadEntity ) -> {
+                loadEntity.moveTo( spawnPos.x, spawnPos.y, spawnPos.z, loadEntity.yRot, loadEntity.xRot );
+                return loadEntity;
+            } );
+            if( newEntity == null ) return false;
+            
+            // Attempt to spawn the entity
+            newEntity.moveTo( newEntity.getX(), newEntity.getY(), newEntity.getZ(),
+                    random.nextFloat() * 360.0F, 0.0F );
+            final MobEntity newMob = newEntity instanceof MobEntity ? (MobEntity) newEntity : null;
+            if( newMob != null ) {
+                // Prevent any elite AIs from generating on the spawned entity
+                final MobAIData newMobData = MobAIData.of( newMob );
+                if( newMobData != null ) newMobData.setEliteAIDecided();
                 
-                // Enforce max nearby entities
-                int nearbyEntities = world.getEntitiesOfClass( newEntity.getClass(), nearbyCheckBB ).size();
-                if( mob.getClass().equals( newEntity.getClass() ) ) nearbyEntities--;
-                if( nearbyEntities >= maxNearbyEntities ) break;
+                // Fire the Forge can spawn event
+                if( !ForgeEventFactory.canEntitySpawnSpawner( newMob, world, (float) newEntity.getX(), (float) newEntity.getY(), (float) newEntity.getZ(), this ) )
+                    return true;
                 
-                // Attempt to spawn the entity
-                newEntity.moveTo( newEntity.getX(), newEntity.getY(), newEntity.getZ(),
-                        random.nextFloat() * 360.0F, 0.0F );
-                final MobEntity newMob = newEntity instanceof MobEntity ? (MobEntity) newEntity : null;
-                if( newMob != null ) {
-                    // Create the elite AI compound to prevent any elite AIs from generating on the spawned entity
-                    NBTHelper.getOrCreateTag( NBTHelper.getModTag( newMob ), AIManager.TAG_ELITE_AI );
-                    
-                    // Fire the Forge can spawn event
-                    if( !ForgeEventFactory.canEntitySpawnSpawner( newMob, world, (float) newEntity.getX(), (float) newEntity.getY(), (float) newEntity.getZ(), this ) )
-                        continue;
-                    
-                    // If needed, perform the standard entity spawn initialization
-                    if( nextSpawnData.getTag().size() == 1 && nextSpawnData.getTag().contains( TAG_ENTITY_ID, NBTHelper.ID_STRING ) &&
-                            !ForgeEventFactory.doSpecialSpawn( newMob, world, (float) newEntity.getX(), (float) newEntity.getY(), (float) newEntity.getZ(), this, SpawnReason.SPAWNER ) ) {
-                        newMob.finalizeSpawn( world, world.getCurrentDifficultyAt( newEntity.blockPosition() ),
-                                SpawnReason.SPAWNER, null, null );
-                    }
+                // If needed, perform the standard entity spawn initialization
+                if( prototype.INITIALIZE && !ForgeEventFactory.doSpecialSpawn( newMob, world, (float) newEntity.getX(), (float) newEntity.getY(), (float) newEntity.getZ(), this, SpawnReason.SPAWNER ) ) {
+                    newMob.finalizeSpawn( world, world.getCurrentDifficultyAt( newEntity.blockPosition() ),
+                            SpawnReason.SPAWNER, null, null );
                 }
-                if( !world.tryAddFreshEntityWithPassengers( newEntity ) ) break;
+            }
+            if( !world.tryAddFreshEntityWithPassengers( newEntity ) ) return false;
+            
+            // This spawn was successful
+            BlockHelper.LevelEvent.SPAWNER_PARTICLES.play( mob, headPos );
+            if( newMob != null ) {
+                newMob.spawnAnim();
                 
-                // This spawn was successful
-                BlockHelper.LevelEvent.SPAWNER_PARTICLES.play( mob, headPos );
-                if( newMob != null ) {
-                    newMob.spawnAnim();
-                    
-                    // Copy target from the spawner mob
-                    newMob.setTarget( mob.getTarget() );
-                    newMob.setLastHurtByMob( mob.getTarget() );
-                }
+                // Copy target from the spawner mob
+                newMob.setTarget( mob.getTarget() );
+                newMob.setLastHurtByMob( mob.getTarget() );
             }
+            return true;
+        }
+        
+        /**
+         * @return True if there are already too many instances of the entity class nearby to spawn another, or the class is
+         * unknown. Only does an area search when the tracked population near the spawner is not clearly under the limit.
+         */
+        private boolean isAtMaxNearby( ServerWorld world, @Nullable Class<? extends Entity> entityClass, AxisAlignedBB nearbyCheckBB ) {
+            if( entityClass == null ) return true;
+            // The spawner mob is always in the area, but should not count toward its own limit
+            final int self = mob.getClass().equals( entityClass ) ? 1 : 0;
+            if( PopulationTracker.countUpperBound( world, entityClass, nearbyCheckBB ) - self < maxNearbyEntities ) return false;
+            return world.getEntitiesOfClass( entityClass, nearbyCheckBB ).size() - self >= maxNearbyEntities;
         }
         
         /** Resets the spawn delay and picks a new mob to spawn, if needed. */
@@ -290,6 +375,7 @@ public class SpawnerEliteGoal extends AbstractEliteGoal {
         public void load( CompoundNBT tag ) {
             spawnDelay = tag.getShort( TAG_DELAY );
             spawnPotentials.clear();
+            prototypes.clear();
             if( tag.contains( TAG_SPAWN_POTENTIALS, NBTHelper.ID_LIST ) ) {
                 ListNBT listnbt = tag.getList( TAG_SPAWN_POTENTIALS, NBTHelper.ID_COMPOUND );
                 
@@ -315,6 +401,23 @@ public class SpawnerEliteGoal extends AbstractEliteGoal {
             if( tag.contains( TAG_SPAWN_RANGE, NBTHelper.ID_NUMERICAL ) ) {
                 spawnRange = tag.getShort( TAG_SPAWN_RANGE );
             }
+            // Anything not in the tag was left at its default, so only an older tag needs to be written again
+            dirty = !tag.contains( TAG_SPAWN_RANGE, NBTHelper.ID_NUMERICAL );
+            savedDelay = spawnDelay;
+        }
+        
+        /**
+         * Writes any changes since the last save to nbt. The spawn delay changes every tick while the spawner is active,
+         * so on its own it is written as a single value instead of saving everything.
+         */
+        void saveChanges( CompoundNBT tag ) {
+            if( dirty ) {
+                save( tag );
+            }
+            else if( spawnDelay != savedDelay ) {
+                tag.putShort( TAG_DELAY, (short) spawnDelay );
+                savedDelay = spawnDelay;
+            }
         }
         
         /** Saves the spawner to nbt. */
@@ -339,6 +442,8 @@ public class SpawnerEliteGoal extends AbstractEliteGoal {
                 }
             }
             tag.put( TAG_SPAWN_POTENTIALS, potentials );
+            dirty = false;
+            savedDelay = spawnDelay;
             return tag;
         }
         
@@ -355,5 +460,85 @@ public class SpawnerEliteGoal extends AbstractEliteGoal {
                 setEntityId( mob.getType() );
             }
         }
+        
+        /** The parts of a spawn data needed for spawning, worked out once so each spawn attempt can skip straight to loading. */
+        private static final class SpawnPrototype {
+            /** The entity type to spawn, or null if the spawn data does not name a valid one. */
+            @Nullable
+            final EntityType<?> TYPE;
+            /** The nbt to load each spawned entity from. */
+            final CompoundNBT TAG;
+            /** True if the nbt only names the entity type, so spawned mobs need the standard spawn initialization. */
+            final boolean INITIALIZE;
+            /** Half the width of the entity type's bounding box. */
+            private final double HALF_WIDTH;
+            /** The height of the entity type's bounding box. */
+            private final double HEIGHT;
+            /** The class of entities created by the entity type. Null until first needed, or if it could not be determined. */
+            @Nullable
+            private Class<? extends Entity> entityClass;
+            
+            SpawnPrototype( WeightedSpawnerEntity spawnData ) {
+                TAG = spawnData.getTag();
+                TYPE = EntityType.by( TAG ).orElse( null );
+                INITIALIZE = TAG.size() == 1 && TAG.contains( TAG_ENTITY_ID, NBTHelper.ID_STRING );
+                if( TYPE == null ) {
+                    ModCore.LOG.warn( "Spawner elite has invalid spawn data, it will not spawn anything with it: {}", TAG );
+                    HALF_WIDTH = 0.0;
+                    HEIGHT = 0.0;
+                }
+                else {
+                    HALF_WIDTH = TYPE.getWidth() / 2.0;
+                    HEIGHT = TYPE.getHeight();
+                }
+            }
+            
+            /** @return The class of entities created by the entity type, or null if it could not be determined. */
+            @Nullable
+            Class<? extends Entity> getEntityClass( World world ) {
+                if( entityClass == null && TYPE != null ) entityClass = Config.getEntityClass( TYPE, world );
+                return entityClass;
+            }
+            
+            /** @return The bounding box an entity of this type would have at the position. */
+            AxisAlignedBB getBoundingBox( Vector3d pos ) {
+                return new AxisAlignedBB( pos.x - HALF_WIDTH, pos.y, pos.z - HALF_WIDTH,
+                        pos.x + HALF_WIDTH, pos.y + HEIGHT, pos.z + HALF_WIDTH );
+            }
+        }
+        
+        /** A spawn wave in progress. Run at the end of each world tick until it is done, or the spawner mob leaves the world. */
+        private final class SpawnWave {
+            /** The mob this wave spawns. */
+            private final SpawnPrototype PROTOTYPE;
+            /** The game time after which this wave is skipped if it has not made any spawn attempts yet. */
+            private final long DEADLINE;
+            
+            /** The number of spawn attempts this wave has left to make. */
+            private int attemptsLeft = spawnCount;
+            /** True once this wave has made its first spawn attempt. */
+            private boolean started;
+            /** True once this wave will make no more spawn attempts. */
+            private boolean done;
+            
+            SpawnWave( SpawnPrototype prototype ) {
+                PROTOTYPE = prototype;
+                DEADLINE = mob.level.getGameTime() + Config.GENERAL.PERFORMANCE.spawnWaveDeadline.get();
+            }
+            
+            /** @return Makes as many of this wave's spawn attempts as the budget allows and returns true if the wave is done. */
+            boolean step() {
+                final ServerWorld world = (ServerWorld) getLevel();
+                if( !started && world.getGameTime() > DEADLINE ) done = true;
+                
+                while( !done && attemptsLeft > 0 && takeSpawnBudget( world ) ) {
+                    started = true;
+                    attemptsLeft--;
+                    if( !trySpawn( PROTOTYPE ) ) done = true;
+                }
+                if( attemptsLeft <= 0 ) done = true;
+                return done;
+            }
+        }
     }
 }
\ No newline at end of file
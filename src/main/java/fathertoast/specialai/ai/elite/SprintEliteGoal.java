@@ -1,5 +1,6 @@
 package fathertoast.specialai.ai.elite;
 
+import fathertoast.specialai.ai.PathBroker;
 import fathertoast.specialai.config.Config;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.MobEntity;
@@ -63,7 +64,7 @@ public class SprintEliteGoal extends AbstractEliteGoal {
         
         mob.getLookControl().setLookAt( target, 30.0F, 30.0F );
         if( mob.getNavigation().isDone() ) {
-            mob.getNavigation().moveTo( target, Config.ELITE_AI.SPRINT.runSpeed.get() );
+            PathBroker.moveTo( mob, target, Config.ELITE_AI.SPRINT.runSpeed.get() );
         }
         cooldownTimer++;
     }
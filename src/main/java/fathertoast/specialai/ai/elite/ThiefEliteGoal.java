@@ -1,6 +1,7 @@
 package fathertoast.specialai.ai.elite;
 
-import fathertoast.specialai.ai.AIManager;
+import fathertoast.specialai.ai.SightCache;
+import fathertoast.specialai.ai.TickScheduler;
 import fathertoast.specialai.config.Config;
 import net.minecraft.entity.CreatureEntity;
 import net.minecraft.entity.LivingEntity;
@@ -16,28 +17,41 @@ import net.minecraft.potion.Effects;
 import net.minecraft.util.DamageSource;
 import net.minecraft.util.Hand;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
-import java.util.function.Supplier;
 
 /**
  * This AI causes an entity to steal a random item from a player, briefly turn invisible, and then just run away.
  */
 public class ThiefEliteGoal extends AbstractPathingEliteGoal {
-    /** The avoidance AI to be used after an item was stolen. */
-    private final AvoidEntityGoal<PlayerEntity> aiAvoid;
+    /** The avoidance AI to be used after an item was stolen. Only built while there are players nearby to avoid. */
+    @Nullable
+    private AvoidEntityGoal<PlayerEntity> aiAvoid;
+    /** The game time the avoidance AI was last needed at. */
+    private long lastAvoidTime;
     
     ThiefEliteGoal( MobEntity entity ) {
         super( entity );
-        if( entity instanceof CreatureEntity ) {
-            aiAvoid = new AvoidEntityGoal<>( (CreatureEntity) entity, PlayerEntity.class, (float) Config.ELITE_AI.THIEF.avoidRange.get(),
+        setFlags( EnumSet.of( Flag.MOVE, Flag.LOOK ) );
+    }
+    
+    /** @return The avoidance AI, building it first if needed, or null if this entity can't use it. */
+    @Nullable
+    private AvoidEntityGoal<PlayerEntity> getAvoidGoal() {
+        if( aiAvoid == null && mob instanceof CreatureEntity ) {
+            aiAvoid = new AvoidEntityGoal<>( (CreatureEntity) mob, PlayerEntity.class, (float) Config.ELITE_AI.THIEF.avoidRange.get(),
                     Config.ELITE_AI.THIEF.avoidWalkSpeed.get(), Config.ELITE_AI.THIEF.avoidRunSpeed.get() );
         }
-        else {
-            aiAvoid = null;
-        }
-        setFlags( EnumSet.of( Flag.MOVE, Flag.LOOK ) );
+        lastAvoidTime = mob.level.getGameTime();
+        return aiAvoid;
+    }
+    
+    /** @return True if there may be a player close enough for the avoidance AI to run from. */
+    private boolean hasPlayerToAvoid() {
+        // The avoidance AI searches a box, so check out to its corners
+        return mob.level.hasNearbyAlivePlayer( mob.getX(), mob.getY(), mob.getZ(), Config.ELITE_AI.THIEF.avoidRange.get() * 2.0 );
     }
     
     /** @return Returns true if this AI can be activated. */
@@ -49,12 +63,18 @@ public class ThiefEliteGoal extends AbstractPathingEliteGoal {
             return hasItems( (PlayerEntity) target );
         }
         // Wants to avoid the target
-        if( aiAvoid != null && (target == null || target.getHealth() > target.getMaxHealth() * 0.3333F) ) {
-            try {
-                return aiAvoid.canUse();
+        if( mob instanceof CreatureEntity && (target == null || target.getHealth() > target.getMaxHealth() * 0.3333F) ) {
+            if( hasPlayerToAvoid() ) {
+                try {
+                    return getAvoidGoal().canUse();
+                }
+                catch( Exception ex ) {
+                    return false;
+                }
             }
-            catch( Exception ex ) {
-                return false;
+            // Drop the avoidance AI if it has gone unused for long enough
+            if( aiAvoid != null && mob.level.getGameTime() - lastAvoidTime > Config.ELITE_AI.GENERAL.idleReleaseTime.get() ) {
+                aiAvoid = null;
             }
         }
         return false;
@@ -69,7 +89,7 @@ public class ThiefEliteGoal extends AbstractPathingEliteGoal {
             startPathing( target, Config.ELITE_AI.THIEF.moveSpeed.get() );
         }
         // Try to avoid the target
-        else if( aiAvoid != null ) {
+        else if( getAvoidGoal() != null ) {
             try {
                 aiAvoid.start();
             }
@@ -101,7 +121,7 @@ public class ThiefEliteGoal extends AbstractPathingEliteGoal {
             }
             mob.getLookControl().setLookAt( target, 30.0F, 30.0F );
             
-            if( mob.distanceToSqr( target ) <= mob.getBbWidth() * mob.getBbWidth() * 4.0F + target.getBbWidth() && mob.canSee( target ) ) {
+            if( mob.distanceToSqr( target ) <= mob.getBbWidth() * mob.getBbWidth() * 4.0F + target.getBbWidth() && SightCache.canSee( mob, target ) ) {
                 // The target is in range; deal a tiny hit of damage, steal the item, and turn invisible
                 target.hurt( DamageSource.mobAttack( mob ), (float) Config.ELITE_AI.THIEF.stealDamage.get() );
                 mob.swing( Hand.MAIN_HAND );
@@ -110,7 +130,7 @@ public class ThiefEliteGoal extends AbstractPathingEliteGoal {
                     if( !stolen.isEmpty() ) {
                         final ItemEntity drop = new ItemEntity( mob.level, mob.getX(), mob.getY() + 0.5, mob.getZ(), stolen );
                         drop.setPickUpDelay( 20 );
-                        AIManager.queue( new EquipToThief( mob, drop ) );
+                        TickScheduler.of( mob.level ).schedule( mob, 0, new EquipToThief( mob, drop ) );
                         mob.level.addFreshEntity( drop );
                     }
                 }
@@ -125,7 +145,7 @@ public class ThiefEliteGoal extends AbstractPathingEliteGoal {
             }
         }
         // Trying to avoid the target
-        else if( aiAvoid != null ) {
+        else if( getAvoidGoal() != null ) {
             try {
                 aiAvoid.tick();
             }
@@ -215,7 +235,7 @@ public class ThiefEliteGoal extends AbstractPathingEliteGoal {
      * Used to connect a stolen item to the thief that stole it, so the item can be equipped to the thief.
      * This strategy is used because changing entity equipment during the AI tick can crash the game.
      */
-    private static class EquipToThief implements Supplier<Boolean> {
+    private static class EquipToThief implements Runnable {
         /** The thief that stole the item. */
         private final MobEntity THIEF;
         /** The item stolen. */
@@ -228,12 +248,11 @@ public class ThiefEliteGoal extends AbstractPathingEliteGoal {
         
         /** Called to finalize the item stealing process. Equips the item to the thief and destroys the dropped item. */
         @Override
-        public Boolean get() {
+        public void run() {
             THIEF.setItemSlot( EquipmentSlotType.MAINHAND, ITEM.getItem() );
             THIEF.setGuaranteedDrop( EquipmentSlotType.MAINHAND );
             THIEF.setPersistenceRequired();
             ITEM.remove();
-            return true;
         }
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package fathertoast.specialai.ai.elite;
 
+import fathertoast.specialai.ai.TargetIndex;
 import fathertoast.specialai.config.Config;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.LivingEntity;
@@ -8,7 +9,6 @@ import net.minecraft.util.Hand;
 import net.minecraft.util.math.vector.Vector3d;
 
 import java.util.EnumSet;
-import java.util.List;
 
 /**
  * This AI causes an entity to throw nearby allies at its target when at range.
@@ -134,18 +134,17 @@ public class ThrowAllyEliteGoal extends AbstractPathingEliteGoal {
         double closestDistanceSqr = mob.distanceToSqr( target );
         if( closestDistanceSqr < Config.ELITE_AI.THROW_ALLY.throwRangeSqrMin.get() ) return false;
         
-        final List<Entity> nearbyEntities = mob.level.getEntities( mob, mob.getBoundingBox().inflate( Math.sqrt( closestDistanceSqr ) + 2.0 ) );
-        for( Entity entity : nearbyEntities ) {
+        for( MobEntity entity : TargetIndex.attackersOf( target ) ) {
             // Check if the entity is a valid throw target
-            if( !(entity instanceof MobEntity) || !entity.isAlive() || !entity.isOnGround() || entity.isPassenger() ||
-                    target != ((MobEntity) entity).getTarget() || entity.distanceToSqr( target ) < Config.ELITE_AI.THROW_ALLY.allyRangeSqrMin.get() )
+            if( entity == mob || !entity.isAlive() || !entity.isOnGround() || entity.isPassenger() ||
+                    target != entity.getTarget() || entity.distanceToSqr( target ) < Config.ELITE_AI.THROW_ALLY.allyRangeSqrMin.get() )
                 continue;
             
             // Pick the closest target only
             final double distanceSqr = mob.distanceToSqr( entity );
             if( distanceSqr < closestDistanceSqr ) {
                 closestDistanceSqr = distanceSqr;
-                throwTarget = (MobEntity) entity;
+                throwTarget = entity;
             }
         }
         return throwTarget != null;
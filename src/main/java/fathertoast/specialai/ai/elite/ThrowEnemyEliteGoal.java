@@ -1,5 +1,6 @@
 package fathertoast.specialai.ai.elite;
 
+import fathertoast.specialai.ai.TargetIndex;
 import fathertoast.specialai.config.Config;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.LivingEntity;
@@ -10,7 +11,6 @@ import net.minecraft.util.Hand;
 import net.minecraft.util.math.vector.Vector3d;
 
 import java.util.EnumSet;
-import java.util.List;
 
 /**
  * This AI causes an entity to throw its target at nearby allies if they are far.
@@ -164,11 +164,11 @@ public class ThrowEnemyEliteGoal extends AbstractPathingEliteGoal {
         if( target == null ) return false;
         
         final double maxTargetRange = Config.ELITE_AI.THROW_ENEMY.throwRangeSqrMax.getSqrRoot() + Config.ELITE_AI.THROW_ENEMY.carryRange.get();
-        final List<Entity> entitiesNearTarget = mob.level.getEntities( mob, target.getBoundingBox().inflate( maxTargetRange + 2.0 ) );
+        final CrowdDensityMap crowdDensity = CrowdDensityMap.of( mob.level );
         int mostNearby = -1;
-        for( Entity entity : entitiesNearTarget ) {
+        for( MobEntity entity : TargetIndex.attackersOf( target ) ) {
             // Check if the entity is a valid ally
-            if( !(entity instanceof MobEntity) || !entity.isAlive() || target != ((MobEntity) entity).getTarget() )
+            if( entity == mob || !entity.isAlive() || target != entity.getTarget() )
                 continue;
             final double distanceSqr = entity.distanceToSqr( target );
             if( distanceSqr > maxTargetRange * maxTargetRange ) continue;
@@ -179,10 +179,10 @@ public class ThrowEnemyEliteGoal extends AbstractPathingEliteGoal {
             }
             
             // Pick the ally that has the most other entities around it
-            final int nearby = entity.level.getEntities( entity, entity.getBoundingBox().inflate( 4.0 ) ).size();
+            final int nearby = crowdDensity.countNear( entity );
             if( nearby > mostNearby ) {
                 mostNearby = nearby;
-                throwTarget = (MobEntity) entity;
+                throwTarget = entity;
             }
         }
         return throwTarget != null;
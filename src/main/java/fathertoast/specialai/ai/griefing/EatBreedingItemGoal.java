@@ -1,5 +1,6 @@
 package fathertoast.specialai.ai.griefing;
 
+import fathertoast.specialai.ai.PathBroker;
 import fathertoast.specialai.config.Config;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.ai.goal.Goal;
@@ -62,7 +63,7 @@ public class EatBreedingItemGoal extends Goal {
     /** Called when this AI is activated. */
     @Override
     public void start() {
-        mob.getNavigation().moveTo( target.position().x, target.position().y, target.position().z, 1.0 );
+        PathBroker.moveTo( mob, target.position().x, target.position().y, target.position().z, 1.0 );
     }
     
     /** Called each tick while this AI is active. */
@@ -88,7 +89,7 @@ public class EatBreedingItemGoal extends Goal {
             }
         }
         else if( mob.getNavigation().isDone() ) {
-            mob.getNavigation().moveTo( target.position().x, target.position().y, target.position().z, 1.0 );
+            PathBroker.moveTo( mob, target.position().x, target.position().y, target.position().z, 1.0 );
         }
     }
     
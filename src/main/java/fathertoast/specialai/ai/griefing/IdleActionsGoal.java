@@ -2,6 +2,7 @@ package fathertoast.specialai.ai.griefing;
 
 import fathertoast.specialai.ModCore;
 import fathertoast.specialai.ai.AIManager;
+import fathertoast.specialai.ai.PathBroker;
 import fathertoast.specialai.config.Config;
 import fathertoast.specialai.util.BlockHelper;
 import fathertoast.specialai.util.SpecialAIFakePlayer;
@@ -89,7 +90,7 @@ public class IdleActionsGoal extends Goal {
     
     /** Attempt to pathfind to the currently set target. */
     private void pathToTarget() {
-        mob.getNavigation().moveTo(
+        PathBroker.moveTo( mob,
                 targetPos.getX() + 0.5, targetPos.getY() + 0.5, targetPos.getZ() + 0.5, 1.0 );
     }
     
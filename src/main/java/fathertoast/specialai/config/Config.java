@@ -4,8 +4,13 @@ import fathertoast.specialai.ModCore;
 import fathertoast.specialai.config.field.AbstractConfigField;
 import fathertoast.specialai.config.file.ToastConfigSpec;
 import fathertoast.specialai.config.file.TomlHelper;
+import fathertoast.specialai.config.util.EntityClassCache;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.world.World;
 import net.minecraftforge.fml.loading.FMLPaths;
 
+import javax.annotation.Nullable;
 import java.io.File;
 
 /**
@@ -33,6 +38,24 @@ public class Config {
         //VILLAGES.SPEC.initialize();
     }
     
+    /** Waits for any config file writes still in progress. Called when the server stops, so no write is cut off. */
+    public static void flushWrites() { ToastConfigSpec.flushWrites(); }
+    
+    /** Saves the entity classes resolved this session, so later sessions can skip resolving them. */
+    public static void saveEntityClassCache() { EntityClassCache.save(); }
+    
+    /** @return The class of entities created by the entity type, or null if it could not be determined. */
+    @Nullable
+    public static Class<? extends Entity> getEntityClass( EntityType<?> entityType, World world ) {
+        return EntityClassCache.resolve( entityType, world );
+    }
+    
+    /**
+     * @return The number of times any config file has finished loading. Anything cached from config values should be
+     * recalculated when this changes.
+     */
+    public static int getLoadCount() { return ToastConfigSpec.getLoadCount(); }
+    
     /**
      * Represents one config file that contains a reference for each configurable value within and a specification
      * that defines the file's format.
@@ -77,13 +77,17 @@ public class EliteAIConfig extends Config.AbstractConfig {
     public static class EliteGeneral extends Config.AbstractCategory {
         
         public final EntityListField.Combined entityList;
+        public final DimensionListField dimensionMultipliers;
         
         public final WeightedList<EliteAIType> eliteAIWeights;
+        public final EntityListField eliteAIWeightOverrides;
         
         public final BooleanField enablePreferMelee;
         public final BooleanField enableAttributeMods;
         public final BooleanField enableEquipmentReplace;
         
+        public final IntField idleReleaseTime;
+        
         EliteGeneral( ToastConfigSpec parent ) {
             super( parent, "general",
                     "Options for customizing the elite AI system and options that affect all elite AI patterns." );
@@ -103,6 +107,10 @@ public class EliteAIConfig extends Config.AbstractConfig {
                             "You can specify multiple chances for each entity - each chance will be rolled and multiple AIs can stack." ) ),
                     SPEC.define( new EntityListField( "entities.blacklist", new EntityList().setNoValues() ) )
             );
+            dimensionMultipliers = SPEC.define( new DimensionListField( "entities.dimension_multipliers", 1.0, DoubleField.Range.POSITIVE,
+                    "List of dimensions that multiply the chances above for mobs spawning in them.",
+                    "For example, \"minecraft:the_nether 2.0\" doubles the chances in the Nether and \"minecraft:overworld 0.0\"",
+                    "prevents elite AI patterns in the Overworld." ) );
             
             SPEC.newLine();
             
@@ -110,6 +118,11 @@ public class EliteAIConfig extends Config.AbstractConfig {
                     "The following options are the weights for each elite AI pattern to be chosen when assigning an elite AI",
                     "to entities in the above list. The higher an AI's weight, the more common it will be compared to the others.",
                     "Elite AIs given a weight of 0 are effectively disabled (though they can still be NBT-edited onto mobs)." );
+            eliteAIWeightOverrides = SPEC.define( new EntityListField( "weight_overrides", new EntityList()
+                    .setMultiValue( EliteAIType.values().length ).setRangePos(),
+                    "List of mobs that use their own elite AI pattern weights instead of the weights above.",
+                    "Additional values after the entity type are the weights for each elite AI pattern, in the same order",
+                    "as the weight options above. Mobs that are not in this list use the weights above." ) );
             
             SPEC.newLine();
             
@@ -125,6 +138,13 @@ public class EliteAIConfig extends Config.AbstractConfig {
                     "This equipment is designed to visually distinguish the elite AI pattern(s) on entities, so disabling",
                     "this may make it more difficult for players to understand what they are fighting.",
                     "Note that each equipment item can be disabled individually and some can be modified (see categories below)." ) );
+            
+            SPEC.newLine();
+            
+            idleReleaseTime = SPEC.define( new IntField( "idle_release_time", 600, IntField.Range.NON_NEGATIVE,
+                    "Some elite AI patterns (currently thief and spawner) only build their working state once it is first needed.",
+                    "This is the time (in ticks) such an AI must go unused before that state is dropped again to save memory.",
+                    "Any state that must persist is saved to the entity first." ) );
         }
     }
     
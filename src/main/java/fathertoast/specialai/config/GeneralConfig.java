@@ -15,12 +15,13 @@ public class GeneralConfig extends Config.AbstractConfig {
     public final Reactions REACTIONS;
     public final Jockeys JOCKEYS;
     public final DoorBreaking DOOR_BREAKING;
+    public final Performance PERFORMANCE;
     
     /** Builds the config spec that should be used for this config. */
     GeneralConfig( File dir, String fileName ) {
         super( dir, fileName,
                 "This config contains options for several miscellaneous features in the mod, such as:",
-                "animals, reactions, jockeys, and door breaking."
+                "animals, reactions, jockeys, door breaking, and performance."
         );
     
         SPEC.newLine();
@@ -32,6 +33,7 @@ public class GeneralConfig extends Config.AbstractConfig {
         REACTIONS = new Reactions( SPEC );
         JOCKEYS = new Jockeys( SPEC );
         DOOR_BREAKING = new DoorBreaking( SPEC );
+        PERFORMANCE = new Performance( SPEC );
     }
     
     public static class Animals extends Config.AbstractCategory {
@@ -266,4 +268,62 @@ public class GeneralConfig extends Config.AbstractConfig {
             );
         }
     }
+    
+    public static class Performance extends Config.AbstractCategory {
+        
+        public final BooleanField deferInitialization;
+        public final IntField deferTickBudget;
+        public final SqrDoubleField deferPlayerRangeSqr;
+        
+        public final IntField spawnTickBudget;
+        public final IntField spawnWaveDeadline;
+        
+        public final IntField pathTickBudget;
+        public final SqrDoubleField pathPriorityRangeSqr;
+        
+        public final IntField sightCacheTime;
+        public final SqrDoubleField sightCacheMoveLimitSqr;
+        
+        Performance( ToastConfigSpec parent ) {
+            super( parent, "performance",
+                    "Options to help reduce this mod's impact on server performance." );
+            
+            deferInitialization = SPEC.define( new BooleanField( "deferred_init.enabled", false,
+                    "If true, mobs entering the world are queued and have this mod's AI applied at the end of the tick,",
+                    "nearest to a player first and only for as long as the time budget below allows.",
+                    "This smooths out lag spikes when many mobs load at once (such as when flying into new chunks),",
+                    "at the cost of mobs briefly acting without this mod's AI." ) );
+            deferTickBudget = SPEC.define( new IntField( "deferred_init.tick_budget", 2_000, IntField.Range.POSITIVE,
+                    "The time (in microseconds) that may be spent applying AI to queued mobs each tick.",
+                    "1000 microseconds is 1 millisecond." ) );
+            deferPlayerRangeSqr = SPEC.define( new SqrDoubleField( "deferred_init.player_range", 128.0, DoubleField.Range.POSITIVE,
+                    "Queued mobs farther than this distance (in blocks) from every player are left in the queue until a player",
+                    "comes within range or the mob is unloaded." ) );
+            
+            SPEC.newLine();
+            
+            spawnTickBudget = SPEC.define( new IntField( "spawner_waves.tick_budget", 4, IntField.Range.POSITIVE,
+                    "The maximum number of mobs that spawner elites may try to spawn each tick, across all worlds.",
+                    "Spawn waves larger than this are spread out over the following ticks." ) );
+            spawnWaveDeadline = SPEC.define( new IntField( "spawner_waves.start_deadline", 40, IntField.Range.NON_NEGATIVE,
+                    "The time (in ticks) a spawn wave may wait for the budget above before it is skipped entirely." ) );
+            
+            SPEC.newLine();
+            
+            pathTickBudget = SPEC.define( new IntField( "path_broker.tick_budget", 1_000, IntField.Range.POSITIVE,
+                    "The time (in microseconds) that this mod's AI may spend finding paths in each world each tick.",
+                    "Mobs that would go over the budget wait and try again later. Mobs heading for the same place share",
+                    "paths, which does not count. 1000 microseconds is 1 millisecond." ) );
+            pathPriorityRangeSqr = SPEC.define( new SqrDoubleField( "path_broker.priority_range", 32.0, DoubleField.Range.POSITIVE,
+                    "Mobs farther than this distance (in blocks) from every player may only use the first half of the path budget." ) );
+            
+            SPEC.newLine();
+            
+            sightCacheTime = SPEC.define( new IntField( "sight_cache.time_to_live", 4, IntField.Range.NON_NEGATIVE,
+                    "The time (in ticks) that this mod's AI reuses a line of sight check between the same two entities.",
+                    "If this is 0, checks are only reused within the same tick." ) );
+            sightCacheMoveLimitSqr = SPEC.define( new SqrDoubleField( "sight_cache.move_limit", 0.5, DoubleField.Range.POSITIVE,
+                    "A line of sight check is no longer reused once either entity has moved farther than this distance (in blocks)." ) );
+        }
+    }
 }
\ No newline at end of file
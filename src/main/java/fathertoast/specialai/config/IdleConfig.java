@@ -75,6 +75,7 @@ public class IdleConfig extends Config.AbstractConfig {
     public static class Griefing extends Config.AbstractCategory {
         
         public final EntityListField.Combined entityList;
+        public final DimensionListField dimensionMultipliers;
         
         public final BooleanField requiresTools;
         
@@ -102,6 +103,10 @@ public class IdleConfig extends Config.AbstractConfig {
                             "Additional value after the entity type is the chance (0.0 to 1.0) for entities of that type to spawn with the AI." ) ),
                     SPEC.define( new EntityListField( "entities.blacklist", new EntityList().setNoValues() ) )
             );
+            dimensionMultipliers = SPEC.define( new DimensionListField( "entities.dimension_multipliers", 1.0, DoubleField.Range.POSITIVE,
+                    "List of dimensions that multiply the chances above for mobs spawning in them.",
+                    "For example, \"minecraft:the_nether 2.0\" doubles the chances in the Nether and \"minecraft:overworld 0.0\"",
+                    "prevents the griefing AI in the Overworld." ) );
             
             SPEC.newLine();
             
@@ -182,6 +187,7 @@ public class IdleConfig extends Config.AbstractConfig {
     public static class Fiddling extends Config.AbstractCategory {
         
         public final EntityListField.Combined entityList;
+        public final DimensionListField dimensionMultipliers;
         
         public final BooleanField targetSwitches;
         public final BooleanField targetDoors;
@@ -201,6 +207,10 @@ public class IdleConfig extends Config.AbstractConfig {
                             "Additional value after the entity type is the chance (0.0 to 1.0) for entities of that type to spawn with the AI." ) ),
                     SPEC.define( new EntityListField( "entities.blacklist", new EntityList().setNoValues() ) )
             );
+            dimensionMultipliers = SPEC.define( new DimensionListField( "entities.dimension_multipliers", 1.0, DoubleField.Range.POSITIVE,
+                    "List of dimensions that multiply the chances above for mobs spawning in them.",
+                    "For example, \"minecraft:the_nether 2.0\" doubles the chances in the Nether and \"minecraft:overworld 0.0\"",
+                    "prevents the fiddling AI in the Overworld." ) );
             
             SPEC.newLine();
             
@@ -11,6 +11,9 @@ import java.util.List;
 
 /**
  * Represents a single key-value mapping in a config.
+ * <p>
+ * Config files are reloaded from the file watcher thread while the server thread reads field values, so implementations
+ * should hold their loaded value in a single volatile field that is replaced in one write when loaded.
  */
 public abstract class AbstractConfigField {
     /** The base key prefix to use for all fields, based on the currently loading config category. */
@@ -15,7 +15,7 @@ public class BooleanField extends AbstractConfigField {
     private final boolean valueDefault;
     
     /** The underlying field value. */
-    private boolean value;
+    private volatile boolean value;
     
     /** Creates a new field. */
     public BooleanField( String key, boolean defaultValue, String... description ) {
@@ -0,0 +1,115 @@
+package fathertoast.specialai.config.field;
+
+import fathertoast.specialai.ModCore;
+import fathertoast.specialai.config.file.TomlHelper;
+import fathertoast.specialai.config.util.DimensionList;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.ResourceLocationException;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Represents a config field with a dimension list value.
+ */
+@SuppressWarnings( "unused" )
+public class DimensionListField extends GenericField<DimensionList> {
+    /** The string to use in place of a registry key for a default entry. */
+    public static final String REG_KEY_DEFAULT = "default";
+    
+    /** The value used for dimensions not in the list, unless the list has a default entry. */
+    private final double FALLBACK;
+    /** The range of allowed entry values. */
+    private final DoubleField.Range RANGE;
+    
+    /** Creates a new field. Dimensions not in the list will use the fallback value. */
+    public DimensionListField( String key, double fallback, DoubleField.Range range, String... description ) {
+        super( key, new DimensionList( fallback ), description );
+        FALLBACK = fallback;
+        RANGE = range;
+    }
+    
+    /** Adds info about the field type, format, and bounds to the end of a field's description. */
+    public void appendFieldInfo( List<String> comment ) {
+        comment.add( TomlHelper.fieldInfoFormat( "Dimension List", valueDefault, "[ \"namespace:dimension value\", ... ]" ) );
+        comment.add( "   Range for Values: " + TomlHelper.fieldRange( RANGE.MIN, RANGE.MAX ) + ", Value for Unlisted Dimensions: " +
+                TomlHelper.toLiteral( FALLBACK ) + " (a \"" + REG_KEY_DEFAULT + "\" entry overrides this)" );
+    }
+    
+    /**
+     * Loads this field's value from the given raw toml value. If anything goes wrong, correct it at the lowest level possible.
+     * <p>
+     * For example, a missing value should be set to the default, while an out-of-range value should be adjusted to the
+     * nearest in-range value
+     */
+    @Override
+    public void load( @Nullable Object raw ) {
+        if( raw == null ) {
+            value = valueDefault;
+            return;
+        }
+        final DimensionList list = new DimensionList( FALLBACK );
+        for( String line : TomlHelper.parseStringList( raw ) ) {
+            parseEntry( list, line );
+        }
+        value = list;
+    }
+    
+    /** Parses a single entry line and adds it to the list, if it is valid. */
+    private void parseEntry( DimensionList list, final String line ) {
+        final String[] args = line.trim().split( " " );
+        if( args.length < 2 ) {
+            ModCore.LOG.warn( "Entry has no value for {} \"{}\"! Deleting entry. Invalid entry: {}",
+                    getClass(), getKey(), line );
+            return;
+        }
+        if( args.length > 2 ) {
+            ModCore.LOG.warn( "Entry has too many values for {} \"{}\"! Deleting additional values. Invalid entry: {}",
+                    getClass(), getKey(), line );
+        }
+        
+        final ResourceLocation regKey;
+        if( REG_KEY_DEFAULT.equalsIgnoreCase( args[0] ) ) {
+            // Handle the special case of a default entry
+            regKey = null;
+        }
+        else {
+            try {
+                regKey = new ResourceLocation( args[0] );
+            }
+            catch( ResourceLocationException ex ) {
+                ModCore.LOG.warn( "Invalid entry for {} \"{}\"! Deleting entry. Invalid entry: {}",
+                        getClass(), getKey(), line );
+                return;
+            }
+        }
+        list.add( regKey, parseValue( args[1], line ) );
+    }
+    
+    /** Parses a single value argument and returns a valid result. */
+    private double parseValue( final String arg, final String line ) {
+        // Try to parse the value
+        double value;
+        try {
+            value = Double.parseDouble( arg );
+        }
+        catch( NumberFormatException ex ) {
+            // This is thrown if the string is not a parsable number
+            ModCore.LOG.warn( "Invalid value for {} \"{}\"! Falling back to {}. Invalid entry: {}",
+                    getClass(), getKey(), FALLBACK, line );
+            value = FALLBACK;
+        }
+        // Verify value is within range
+        if( value < RANGE.MIN ) {
+            ModCore.LOG.warn( "Value for {} \"{}\" is below the minimum ({})! Clamping value. Invalid value: {}",
+                    getClass(), getKey(), RANGE.MIN, value );
+            value = RANGE.MIN;
+        }
+        else if( value > RANGE.MAX ) {
+            ModCore.LOG.warn( "Value for {} \"{}\" is above the maximum ({})! Clamping value. Invalid value: {}",
+                    getClass(), getKey(), RANGE.MAX, value );
+            value = RANGE.MAX;
+        }
+        return value;
+    }
+}
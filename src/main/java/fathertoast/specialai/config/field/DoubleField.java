@@ -20,7 +20,7 @@ public class DoubleField extends AbstractConfigField {
     private final double valueMax;
     
     /** The underlying field value. */
-    private double value;
+    private volatile double value;
     
     /** Creates a new field that accepts any value. */
     public DoubleField( String key, double defaultValue, String... description ) {
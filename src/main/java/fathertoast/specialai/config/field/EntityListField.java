@@ -252,8 +252,18 @@ public class EntityListField extends GenericField<EntityList> {
          * is not contained in this entity list or has no values specified. This should only be used for 'single percent' lists.
          * @see EntityList#setSinglePercent()
          */
-        public boolean rollChance( LivingEntity entity ) {
-            return entity != null && !BLACKLIST.get().contains( entity ) && WHITELIST.get().rollChance( entity );
+        public boolean rollChance( LivingEntity entity ) { return rollChance( entity, 1.0 ); }
+        
+        /**
+         * @param entity     The entity to roll a value for.
+         * @param multiplier The multiplier to apply to the percentage value before rolling.
+         * @return Randomly rolls the first percentage value in the best-match entry's value array, multiplied by the given
+         * multiplier. Returns false if the entity is not contained in this entity list or has no values specified.
+         * This should only be used for 'single percent' lists.
+         * @see EntityList#setSinglePercent()
+         */
+        public boolean rollChance( LivingEntity entity, double multiplier ) {
+            return entity != null && multiplier > 0.0 && !BLACKLIST.get().contains( entity ) && WHITELIST.get().rollChance( entity, multiplier );
         }
     }
 }
\ No newline at end of file
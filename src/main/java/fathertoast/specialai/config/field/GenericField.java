@@ -13,7 +13,7 @@ public abstract class GenericField<T> extends AbstractConfigField {
     protected final T valueDefault;
     
     /** The underlying field value. */
-    protected T value;
+    protected volatile T value;
     
     /** Creates a new field. */
     public GenericField( String key, T defaultValue, String... description ) {
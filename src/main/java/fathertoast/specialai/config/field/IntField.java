@@ -20,7 +20,7 @@ public class IntField extends AbstractConfigField {
     private final int valueMax;
     
     /** The underlying field value. */
-    private int value;
+    private volatile int value;
     
     /** Creates a new field that accepts any value. */
     public IntField( String key, int defaultValue, String... description ) {
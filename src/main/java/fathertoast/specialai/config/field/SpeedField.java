@@ -11,7 +11,7 @@ public class SpeedField extends DoubleField {
     private static final double PER_SECOND_TO_PER_TICK = 0.05;
     
     /** The underlying field value, squared. */
-    private double valueConverted;
+    private volatile double valueConverted;
     
     /** Creates a new field that accepts any value. */
     public SpeedField( String key, double defaultValue, String... description ) {
@@ -13,7 +13,7 @@ import java.util.Random;
 @SuppressWarnings( "unused" )
 public class SqrDoubleField extends DoubleField {
     /** The underlying field value, squared. */
-    private double valueSqr;
+    private volatile double valueSqr;
     
     /** Creates a new field that accepts any value. */
     public SqrDoubleField( String key, double defaultValue, String... description ) {
@@ -9,9 +9,23 @@ import fathertoast.specialai.config.field.BlockListField;
 import fathertoast.specialai.config.field.EntityListField;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A config spec maps read and write functions to the runtime variables used to hold them.
@@ -21,6 +35,42 @@ import java.util.Objects;
  */
 @SuppressWarnings( "unused" )
 public class ToastConfigSpec {
+    /** The file extension appended to a config file while it is being written, before it is moved into place. */
+    private static final String TEMP_FILE_EXT = ".tmp";
+    
+    /** The longest time (in seconds) to wait for pending config file writes to finish when shutting down. */
+    private static final int FLUSH_TIMEOUT = 10;
+    
+    /** The background thread used to write config files. A single thread keeps writes to each file in order. */
+    private static final ExecutorService FILE_WRITER = Executors.newSingleThreadExecutor( runnable -> {
+        final Thread thread = new Thread( runnable, ModCore.MOD_ID + " config writer" );
+        thread.setDaemon( true );
+        return thread;
+    } );
+    
+    static {
+        // The writer thread is a daemon so it never holds the game open, so make sure pending writes finish on exit
+        Runtime.getRuntime().addShutdownHook( new Thread( ToastConfigSpec::flushWrites, ModCore.MOD_ID + " config flush" ) );
+    }
+    
+    /** Blocks until all config file writes queued so far have finished, or the flush timeout runs out. */
+    public static void flushWrites() {
+        try {
+            FILE_WRITER.submit( () -> { } ).get( FLUSH_TIMEOUT, TimeUnit.SECONDS );
+        }
+        catch( InterruptedException ex ) {
+            Thread.currentThread().interrupt();
+        }
+        catch( ExecutionException | TimeoutException ex ) {
+            ModCore.LOG.warn( "Timed out waiting for config files to finish writing!", ex );
+        }
+    }
+    
+    /** The number of times any config file has finished loading. Lets values derived from configs tell when they are stale. */
+    private static final AtomicInteger LOAD_COUNT = new AtomicInteger();
+    
+    /** @return The number of times any config file has finished loading. Changes each time a config is reloaded. */
+    public static int getLoadCount() { return LOAD_COUNT.get(); }
     
     /** The directory containing this config's file. */
     public final File DIR;
@@ -61,8 +111,12 @@ public class ToastConfigSpec {
         CONFIG_FILE.load();
     }
     
-    /** Called after the config is loaded to update cached values. */
-    public void onLoad() {
+    /**
+     * Called after the config is loaded to update cached values.
+     * <p>
+     * Synchronized because the first load happens on the main thread, while later reloads come from the file watcher thread.
+     */
+    public synchronized void onLoad() {
         // Perform load actions
         boolean rewrite = false;
         for( Action action : ACTIONS ) {
@@ -71,8 +125,41 @@ public class ToastConfigSpec {
         // Only rewrite on first load or if one of the load actions requests it
         if( rewrite || firstLoad ) {
             firstLoad = false;
-            CONFIG_FILE.save();
+            save();
         }
+        LOAD_COUNT.incrementAndGet();
+    }
+    
+    /**
+     * Renders the config file in memory and, if its contents differ from the file on disk, writes it in the background.
+     * <p>
+     * The file is written to a temporary file and then moved into place, so the config file is never left half-written.
+     */
+    private void save() {
+        final StringWriter buffer = new StringWriter();
+        new ToastTomlWriter( this ).write( CONFIG_FILE, buffer );
+        final byte[] contents = buffer.toString().getBytes( StandardCharsets.UTF_8 );
+        final Path path = CONFIG_FILE.getFile().toPath();
+        
+        FILE_WRITER.execute( () -> {
+            try {
+                if( Files.isRegularFile( path ) && Arrays.equals( contents, Files.readAllBytes( path ) ) ) {
+                    ModCore.LOG.debug( "Config file is unchanged, skipping write. ({})", path );
+                    return;
+                }
+                final Path tempPath = path.resolveSibling( path.getFileName() + TEMP_FILE_EXT );
+                Files.write( tempPath, contents );
+                try {
+                    Files.move( tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+                }
+                catch( AtomicMoveNotSupportedException ex ) {
+                    Files.move( tempPath, path, StandardCopyOption.REPLACE_EXISTING );
+                }
+            }
+            catch( IOException ex ) {
+                ModCore.LOG.error( "Failed to write config file! ({})", path, ex );
+            }
+        } );
     }
     
     /** Writes the current state of the config to file. */
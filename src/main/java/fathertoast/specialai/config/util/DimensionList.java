@@ -0,0 +1,74 @@
+package fathertoast.specialai.config.util;
+
+import fathertoast.specialai.config.field.DimensionListField;
+import fathertoast.specialai.config.field.IStringArray;
+import fathertoast.specialai.config.file.TomlHelper;
+import net.minecraft.util.RegistryKey;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A list of dimension-value entries used to link a number to specific dimensions.
+ * <p>
+ * Dimensions are not registered until a server starts, so entries are only checked to be valid registry keys.
+ */
+@SuppressWarnings( "unused" )
+public class DimensionList implements IStringArray {
+    /** The dimension-value entries in this list. The default entry, if any, is mapped to the null key. */
+    private final Map<ResourceLocation, Double> ENTRIES = new LinkedHashMap<>();
+    /** The value used for dimensions that are not in this list. */
+    private double defaultValue;
+    
+    /** Create a new, empty dimension list. Dimensions not in the list will use the fallback value. */
+    public DimensionList( double fallbackValue ) { defaultValue = fallbackValue; }
+    
+    /** Adds an entry to this dimension list and returns 'this'. Used for creating default configs and while loading. */
+    public DimensionList add( RegistryKey<World> dimension, double value ) { return add( dimension.location(), value ); }
+    
+    /**
+     * Adds an entry to this dimension list and returns 'this'. Used for creating default configs and while loading.
+     * A null dimension sets the value used for dimensions that are not in the list.
+     */
+    public DimensionList add( ResourceLocation dimension, double value ) {
+        ENTRIES.put( dimension, value );
+        if( dimension == null ) defaultValue = value;
+        return this;
+    }
+    
+    /** @return A string representation of this object. */
+    @Override
+    public String toString() { return TomlHelper.toLiteral( toStringList().toArray() ); }
+    
+    /** @return Returns true if this object has the same value as another object. */
+    @Override
+    public boolean equals( Object other ) {
+        if( !(other instanceof DimensionList) ) return false;
+        // Compare by the string list view of the object
+        return toStringList().equals( ((DimensionList) other).toStringList() );
+    }
+    
+    /** @return A list of strings that will represent this object when written to a toml file. */
+    @Override
+    public List<String> toStringList() {
+        // Create a list of the entries in string format
+        final List<String> list = new ArrayList<>( ENTRIES.size() );
+        for( Map.Entry<ResourceLocation, Double> entry : ENTRIES.entrySet() ) {
+            list.add( (entry.getKey() == null ? DimensionListField.REG_KEY_DEFAULT : entry.getKey().toString()) + " " + entry.getValue() );
+        }
+        return list;
+    }
+    
+    /**
+     * @param world The world to retrieve a value for.
+     * @return The value of the world's dimension entry. Returns the default value if the dimension is not in this list.
+     */
+    public double getValue( World world ) {
+        final Double value = ENTRIES.get( world.dimension().location() );
+        return value == null ? defaultValue : value;
+    }
+}
@@ -0,0 +1,208 @@
+package fathertoast.specialai.config.util;
+
+import fathertoast.specialai.ModCore;
+import fathertoast.specialai.config.Config;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.ModList;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The entity class created by each entity type, kept in memory for the game session and in a binary file between sessions.
+ * <p>
+ * Finding an entity type's class means creating a throwaway entity, which is slow for some modded entities, so the class
+ * names found are saved next to the config files. The saved file is only used while the entity registry and the installed
+ * mod versions match the fingerprint it was written with. The file is small, so it is read into memory in one go rather than
+ * memory-mapped; a live mapping would keep the file from being replaced on some systems.
+ */
+public final class EntityClassCache {
+    /** The file the cache is saved to. */
+    private static final File FILE = new File( Config.CONFIG_DIR, "entity_classes.bin" );
+    /** Identifies a cache file. */
+    private static final int MAGIC = 0x53414543;
+    /** The version of the cache file format. Saved caches with any other format are ignored. */
+    private static final int FORMAT = 1;
+    
+    /** The entity class resolved for each entity type so far this session. */
+    private static final Map<EntityType<?>, Class<? extends Entity>> RESOLVED = new ConcurrentHashMap<>();
+    /** The class names read from the saved cache, by entity type registry key. Null until the saved cache has been read. */
+    private static Map<String, String> savedNames;
+    /** True if a class has been resolved that is not yet in the saved cache. */
+    private static volatile boolean dirty;
+    
+    /**
+     * @return The class of entities created by the entity type, or null if it could not be determined. Only creates an entity
+     * if the class is not in this cache.
+     */
+    @Nullable
+    public static Class<? extends Entity> resolve( EntityType<?> entityType, World world ) {
+        final Class<? extends Entity> cached = get( entityType );
+        if( cached != null ) return cached;
+        
+        try {
+            final Entity entity = entityType.create( world );
+            if( entity != null ) {
+                entity.remove();
+                put( entityType, entity.getClass() );
+                return entity.getClass();
+            }
+        }
+        catch( Exception ex ) {
+            ModCore.LOG.warn( "Failed to load class of entity type {}!", entityType );
+            ex.printStackTrace();
+        }
+        return null;
+    }
+    
+    /** @return The entity class created by the entity type, or null if it is not known yet. */
+    @Nullable
+    private static Class<? extends Entity> get( EntityType<?> entityType ) {
+        final Class<? extends Entity> resolved = RESOLVED.get( entityType );
+        if( resolved != null ) return resolved;
+        
+        final ResourceLocation key = ForgeRegistries.ENTITIES.getKey( entityType );
+        final String className = key == null ? null : getSavedNames().get( key.toString() );
+        if( className == null ) return null;
+        try {
+            final Class<?> loaded = Class.forName( className, false, EntityClassCache.class.getClassLoader() );
+            if( Entity.class.isAssignableFrom( loaded ) ) {
+                final Class<? extends Entity> entityClass = loaded.asSubclass( Entity.class );
+                RESOLVED.put( entityType, entityClass );
+                return entityClass;
+            }
+        }
+        catch( ClassNotFoundException | LinkageError ex ) {
+            ModCore.LOG.debug( "Saved class {} for entity type {} could not be loaded", className, key );
+        }
+        return null;
+    }
+    
+    /** Records the entity class created by the entity type, so it is saved with the cache. */
+    private static void put( EntityType<?> entityType, Class<? extends Entity> entityClass ) {
+        if( RESOLVED.put( entityType, entityClass ) != entityClass ) dirty = true;
+    }
+    
+    /** Writes the cache to disk, if any classes have been resolved since it was last read or written. */
+    public static synchronized void save() {
+        if( !dirty ) return;
+        
+        // Keep saved entries that were not needed this session
+        final Map<String, String> names = new HashMap<>( getSavedNames() );
+        for( Map.Entry<EntityType<?>, Class<? extends Entity>> entry : RESOLVED.entrySet() ) {
+            final ResourceLocation key = ForgeRegistries.ENTITIES.getKey( entry.getKey() );
+            if( key != null ) names.put( key.toString(), entry.getValue().getName() );
+        }
+        
+        final Path path = FILE.toPath();
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream( bytes );
+            out.writeInt( MAGIC );
+            out.writeInt( FORMAT );
+            out.writeLong( fingerprint() );
+            out.writeInt( names.size() );
+            for( Map.Entry<String, String> entry : names.entrySet() ) {
+                writeString( out, entry.getKey() );
+                writeString( out, entry.getValue() );
+            }
+            out.flush();
+            
+            final Path tempPath = path.resolveSibling( path.getFileName() + ".tmp" );
+            Files.write( tempPath, bytes.toByteArray() );
+            try {
+                Files.move( tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+            }
+            catch( AtomicMoveNotSupportedException ex ) {
+                Files.move( tempPath, path, StandardCopyOption.REPLACE_EXISTING );
+            }
+            savedNames = names;
+            dirty = false;
+        }
+        catch( IOException ex ) {
+            ModCore.LOG.warn( "Failed to write entity class cache! ({})", path, ex );
+        }
+    }
+    
+    /** @return The class names from the saved cache, reading it first if needed. Empty if there is no valid saved cache. */
+    private static synchronized Map<String, String> getSavedNames() {
+        if( savedNames == null ) {
+            savedNames = new HashMap<>();
+            if( FILE.isFile() ) {
+                try {
+                    final ByteBuffer buffer = ByteBuffer.wrap( Files.readAllBytes( FILE.toPath() ) );
+                    if( buffer.getInt() == MAGIC && buffer.getInt() == FORMAT && buffer.getLong() == fingerprint() ) {
+                        final int count = buffer.getInt();
+                        for( int i = 0; i < count; i++ ) {
+                            savedNames.put( readString( buffer ), readString( buffer ) );
+                        }
+                    }
+                    else {
+                        ModCore.LOG.info( "Entity class cache is out of date, it will be rebuilt. ({})", FILE );
+                    }
+                }
+                catch( IOException | BufferUnderflowException | IllegalArgumentException ex ) {
+                    ModCore.LOG.warn( "Failed to read entity class cache, it will be rebuilt. ({})", FILE, ex );
+                    savedNames.clear();
+                }
+            }
+        }
+        return savedNames;
+    }
+    
+    /** @return A hash of the entity registry and the installed mod versions. Any change to either may change entity classes. */
+    private static long fingerprint() {
+        final List<String> parts = new ArrayList<>();
+        for( ResourceLocation key : ForgeRegistries.ENTITIES.getKeys() ) {
+            parts.add( key.toString() );
+        }
+        ModList.get().forEachModFile( ( modFile ) -> modFile.getModInfos().forEach( ( modInfo ) ->
+                parts.add( modInfo.getModId() + "@" + modInfo.getVersion() ) ) );
+        parts.sort( null );
+        
+        long hash = 0xCBF29CE484222325L;
+        for( String part : parts ) {
+            for( byte b : part.getBytes( StandardCharsets.UTF_8 ) ) {
+                hash = (hash ^ b) * 0x100000001B3L;
+            }
+            hash = (hash ^ '\n') * 0x100000001B3L;
+        }
+        return hash;
+    }
+    
+    /** Writes a length-prefixed UTF-8 string. */
+    private static void writeString( DataOutputStream out, String value ) throws IOException {
+        final byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+        out.writeShort( bytes.length );
+        out.write( bytes );
+    }
+    
+    /** @return A length-prefixed UTF-8 string read from the buffer. */
+    private static String readString( ByteBuffer buffer ) {
+        final byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get( bytes );
+        return new String( bytes, StandardCharsets.UTF_8 );
+    }
+    
+    // This is a static-only helper class.
+    private EntityClassCache() {}
+}
@@ -1,6 +1,5 @@
 package fathertoast.specialai.config.util;
 
-import fathertoast.specialai.ModCore;
 import fathertoast.specialai.config.field.EntityListField;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityType;
@@ -51,17 +50,7 @@ public class EntityEntry {
     /** Called on this entry before using it to check if the entity class has been determined, and loads the class if it has not been. */
     void checkClass( World world ) {
         if( TYPE != null && entityClass == null ) {
-            try {
-                final Entity entity = TYPE.create( world );
-                if( entity != null ) {
-                    entityClass = entity.getClass();
-                    entity.remove();
-                }
-            }
-            catch( Exception ex ) {
-                ModCore.LOG.warn( "Failed to load class of entity type {}!", TYPE );
-                ex.printStackTrace();
-            }
+            entityClass = EntityClassCache.resolve( TYPE, world );
         }
     }
     
@@ -113,8 +113,18 @@ public class EntityList implements IStringArray {
      * is not contained in this entity list or has no values specified. This should only be used for 'single percent' lists.
      * @see #setSinglePercent()
      */
-    public boolean rollChance( LivingEntity entity ) {
-        return ENTRIES.length > 0 && entity != null && entity.getRandom().nextDouble() < getValue( entity );
+    public boolean rollChance( LivingEntity entity ) { return rollChance( entity, 1.0 ); }
+    
+    /**
+     * @param entity     The entity to roll a value for.
+     * @param multiplier The multiplier to apply to the percentage value before rolling.
+     * @return Randomly rolls the first percentage value in the best-match entry's value array, multiplied by the given
+     * multiplier. Returns false if the entity is not contained in this entity list or has no values specified.
+     * This should only be used for 'single percent' lists.
+     * @see #setSinglePercent()
+     */
+    public boolean rollChance( LivingEntity entity, double multiplier ) {
+        return ENTRIES.length > 0 && entity != null && multiplier > 0.0 && entity.getRandom().nextDouble() < getValue( entity ) * multiplier;
     }
     
     /** Marks this entity list as a simple percentage listing; exactly one percent (0 to 1) per entry. */
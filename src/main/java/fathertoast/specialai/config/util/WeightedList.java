@@ -1,12 +1,12 @@
 package fathertoast.specialai.config.util;
 
-import fathertoast.specialai.ModCore;
 import fathertoast.specialai.config.field.IntField;
 import fathertoast.specialai.config.file.ToastConfigSpec;
 import fathertoast.specialai.config.file.TomlHelper;
 
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a list of weighted items that can be chosen at random.
@@ -19,8 +19,8 @@ public class WeightedList<T extends WeightedList.Value> {
     
     /** The weighted entries in this list. */
     private final List<Entry<T>> ENTRIES;
-    /** The total weight of all entries in this list. */
-    private int totalWeight;
+    /** The weights of all entries as of the last config load. Replaced as a whole so reloads never expose a partial state. */
+    private volatile Snapshot<T> snapshot = new Snapshot<>( Collections.emptyList(), new double[0] );
     
     /**
      * Creates a new weighted list config option and registers it and any needed definitions with the spec.
@@ -48,7 +48,7 @@ public class WeightedList<T extends WeightedList.Value> {
             ) ) ) );
         }
         ENTRIES = Collections.unmodifiableList( list );
-        SPEC.callback( this::recalculateTotalWeight );
+        SPEC.callback( this::recompile );
     }
     
     /**
@@ -56,30 +56,128 @@ public class WeightedList<T extends WeightedList.Value> {
      * @return Returns a random item from this weighted list. Null if none of the items have a positive weight.
      */
     @Nullable
-    public T next( Random random ) {
-        if( isDisabled() ) return null;
+    public T next( Random random ) { return snapshot.DEFAULT_TABLE.next( random ); }
+    
+    /**
+     * @param random          The RNG to use for rolling the item.
+     * @param weightOverrides The weights to use instead of the config-defined weights, in the same order as this list's
+     *                        entries. If this is null or the wrong size, the config-defined weights are used.
+     * @return Returns a random item from this weighted list using the given weights. Null if none of the items have a
+     * positive weight.
+     */
+    @Nullable
+    public T next( Random random, @Nullable double[] weightOverrides ) {
+        final Snapshot<T> current = snapshot;
+        if( weightOverrides == null || weightOverrides.length != current.VALUES.size() ) return current.DEFAULT_TABLE.next( random );
+        return current.getTable( weightOverrides ).next( random );
+    }
+    
+    /** @return Returns true if this list was implicitly disabled by setting all weights to 0. */
+    public boolean isDisabled() { return snapshot.DEFAULT_TABLE.isEmpty(); }
+    
+    /** Compiles the current weights of all entries in this list and publishes the result. */
+    public void recompile() {
+        final List<T> values = new ArrayList<>( ENTRIES.size() );
+        final double[] weights = new double[ENTRIES.size()];
+        for( int i = 0; i < weights.length; i++ ) {
+            values.add( ENTRIES.get( i ).getValue() );
+            weights[i] = ENTRIES.get( i ).getWeight();
+        }
+        snapshot = new Snapshot<>( values, weights );
+    }
+    
+    /** An immutable view of this list as of one config load, so each roll sees the weights from exactly one load. */
+    private static class Snapshot<T> {
+        /** The values that can be rolled, in entry order. */
+        private final List<T> VALUES;
+        /** The alias table compiled from the config-defined weights. */
+        private final AliasTable<T> DEFAULT_TABLE;
+        /**
+         * The alias tables compiled from weight overrides so far. Override arrays come from parsed config values and are
+         * replaced on each load, so they are keyed by identity and discarded along with this snapshot.
+         */
+        private final Map<double[], AliasTable<T>> OVERRIDE_TABLES = new ConcurrentHashMap<>();
         
-        int choice = random.nextInt( totalWeight );
-        for( Entry<T> entry : ENTRIES ) {
-            choice -= entry.getWeight();
-            if( choice < 0 ) return entry.getValue();
+        private Snapshot( List<T> values, double[] weights ) {
+            VALUES = Collections.unmodifiableList( values );
+            DEFAULT_TABLE = new AliasTable<>( VALUES, weights );
         }
         
-        ModCore.LOG.error( "Weighting error occurred while rolling random item! " +
-                "This may have been caused by configs reloading during random roll (comod). Otherwise, it is very bad. :(" );
-        return null;
+        /** @return The alias table for the given weights, compiling it the first time the weights are used. */
+        AliasTable<T> getTable( double[] weights ) {
+            return OVERRIDE_TABLES.computeIfAbsent( weights, ( key ) -> new AliasTable<>( VALUES, key ) );
+        }
     }
     
-    /** @return Returns true if this list was implicitly disabled by setting all weights to 0. */
-    public boolean isDisabled() { return totalWeight <= 0; }
-    
-    /** Recalculates the total weight of all entries in this list. */
-    public void recalculateTotalWeight() {
-        int weight = 0;
-        for( Entry<T> entry : ENTRIES ) {
-            weight += entry.getWeight();
+    /**
+     * A weighted distribution compiled with Vose's alias method, allowing items to be rolled in constant time.
+     * <p>
+     * Each column holds one item and, unless that item fills the column on its own, an alias item that fills the remainder.
+     */
+    private static class AliasTable<T> {
+        /** The item in each column. Only items with a positive weight are included. */
+        private final List<T> ITEMS;
+        /** The chance to pick the column's own item rather than its alias, by column. */
+        private final double[] PROBABILITY;
+        /** The column of the alias item, by column. */
+        private final int[] ALIAS;
+        
+        private AliasTable( List<T> values, double[] weights ) {
+            // Only items with a positive weight can be rolled
+            final List<T> items = new ArrayList<>( values.size() );
+            final List<Double> itemWeights = new ArrayList<>( values.size() );
+            double totalWeight = 0.0;
+            for( int i = 0; i < weights.length; i++ ) {
+                if( weights[i] > 0.0 ) {
+                    items.add( values.get( i ) );
+                    itemWeights.add( weights[i] );
+                    totalWeight += weights[i];
+                }
+            }
+            final int count = items.size();
+            ITEMS = Collections.unmodifiableList( items );
+            PROBABILITY = new double[count];
+            ALIAS = new int[count];
+            if( count == 0 ) return;
+            
+            // Scale the weights so the average column is exactly full, then sort the columns into under- and over-full
+            final double[] scaled = new double[count];
+            final int[] small = new int[count];
+            final int[] large = new int[count];
+            int smallSize = 0;
+            int largeSize = 0;
+            for( int i = 0; i < count; i++ ) {
+                scaled[i] = itemWeights.get( i ) * count / totalWeight;
+                if( scaled[i] < 1.0 ) small[smallSize++] = i;
+                else large[largeSize++] = i;
+            }
+            
+            // Fill each under-full column with part of an over-full column
+            while( smallSize > 0 && largeSize > 0 ) {
+                final int less = small[--smallSize];
+                final int more = large[--largeSize];
+                PROBABILITY[less] = scaled[less];
+                ALIAS[less] = more;
+                scaled[more] = scaled[more] + scaled[less] - 1.0;
+                if( scaled[more] < 1.0 ) small[smallSize++] = more;
+                else large[largeSize++] = more;
+            }
+            // Anything left is full, aside from floating point error
+            while( largeSize > 0 ) PROBABILITY[large[--largeSize]] = 1.0;
+            while( smallSize > 0 ) PROBABILITY[small[--smallSize]] = 1.0;
+        }
+        
+        /** @return Returns true if none of the values have a positive weight. */
+        boolean isEmpty() { return ITEMS.isEmpty(); }
+        
+        /** @return Returns a random item from this table. Null if none of the values have a positive weight. */
+        @Nullable
+        T next( Random random ) {
+            if( isEmpty() ) return null;
+            
+            final int column = random.nextInt( ITEMS.size() );
+            return random.nextDouble() < PROBABILITY[column] ? ITEMS.get( column ) : ITEMS.get( ALIAS[column] );
         }
-        totalWeight = weight;
     }
     
     /** An entry links a single value with its config-defined weight. */